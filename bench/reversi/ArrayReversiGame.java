@@ -0,0 +1,106 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The straightforward {@code int[][]} implementation of the game logic, walking the board one cell and one
+ * direction at a time. It's kept here only as the baseline that {@link ReversiGame} is benchmarked against.
+ */
+public class ArrayReversiGame {
+	private static final int SIZE = 8;
+	private static final int[] ROW_INCS = {-1, -1, -1, 0, 0, 1, 1, 1};
+	private static final int[] COL_INCS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+	private final int[][] board;
+	private int curPlayer;
+
+	/**
+	 * @param board the position to start from. It's copied.
+	 * @param curPlayer the player to move
+	 */
+	public ArrayReversiGame(int[][] board, int curPlayer) {
+		this.board = new int[SIZE][];
+		for (int row = 0; row < SIZE; row++) {
+			this.board[row] = board[row].clone();
+		}
+		this.curPlayer = curPlayer;
+	}
+
+	public int getCurPlayer() {
+		return this.curPlayer;
+	}
+
+	public boolean isOnBoard(int row, int col) {
+		return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
+	}
+
+	public int calcFlipsInDirection(int player, int row, int col, int rowInc, int colInc) {
+		int opponent = ReversiGame.opponentPlayer(player);
+		int flips = 0;
+		row += rowInc;
+		col += colInc;
+		while (isOnBoard(row, col) && this.board[row][col] == opponent) {
+			flips++;
+			row += rowInc;
+			col += colInc;
+		}
+		return isOnBoard(row, col) && this.board[row][col] == player ? flips : 0;
+	}
+
+	public int calcMoveFlips(int player, int row, int col) {
+		if (this.board[row][col] != 0) {
+			return 0;
+		}
+		int flips = 0;
+		for (int d = 0; d < ROW_INCS.length; d++) {
+			flips += calcFlipsInDirection(player, row, col, ROW_INCS[d], COL_INCS[d]);
+		}
+		return flips;
+	}
+
+	public MoveScore[] getPossibleMoves(int player) {
+		List<MoveScore> moves = new ArrayList<>();
+		for (int row = 0; row < SIZE; row++) {
+			for (int col = 0; col < SIZE; col++) {
+				int flips = calcMoveFlips(player, row, col);
+				if (flips > 0) {
+					moves.add(new MoveScore(row, col, flips));
+				}
+			}
+		}
+		return moves.toArray(new MoveScore[0]);
+	}
+
+	public MoveScore[] getPossibleMoves() {
+		return getPossibleMoves(this.curPlayer);
+	}
+
+	public boolean placeDisk(int row, int col) {
+		if (!isOnBoard(row, col) || calcMoveFlips(this.curPlayer, row, col) == 0) {
+			return false;
+		}
+		for (int d = 0; d < ROW_INCS.length; d++) {
+			int flips = calcFlipsInDirection(this.curPlayer, row, col, ROW_INCS[d], COL_INCS[d]);
+			for (int i = 1; i <= flips; i++) {
+				this.board[row + i * ROW_INCS[d]][col + i * COL_INCS[d]] = this.curPlayer;
+			}
+		}
+		this.board[row][col] = this.curPlayer;
+		switchToNextPlayablePlayer();
+		return true;
+	}
+
+	public boolean isGameOver() {
+		return getPossibleMoves(ReversiGame.PLAYER_ONE).length == 0
+				&& getPossibleMoves(ReversiGame.PLAYER_TWO).length == 0;
+	}
+
+	public int switchToNextPlayablePlayer() {
+		int opponent = ReversiGame.opponentPlayer(this.curPlayer);
+		if (getPossibleMoves(opponent).length > 0) {
+			this.curPlayer = opponent;
+		}
+		return this.curPlayer;
+	}
+}
@@ -0,0 +1,62 @@
+package reversi;
+
+import java.util.Random;
+
+/**
+ * A fixed corpus of positions for the benchmarks. The positions are reached by seeded random play, so every run
+ * measures exactly the same boards.
+ */
+public final class BenchmarkPositions {
+	public static final int POSITIONS_PER_PHASE = 16;
+	private static final long SEED = 20240611L;
+
+	private BenchmarkPositions() {
+	}
+
+	/**
+	 * The number of moves played from the initial board to reach positions of each game phase.
+	 */
+	public enum Phase {
+		OPENING(6), MIDGAME(24), ENDGAME(48);
+
+		private final int ply;
+
+		Phase(int ply) {
+			this.ply = ply;
+		}
+
+		public int getPly() {
+			return this.ply;
+		}
+	}
+
+	/**
+	 * @return {@link #POSITIONS_PER_PHASE} games, each advanced to the given phase. Games that ended before reaching
+	 *         the phase are replaced, so every returned game still has moves to play.
+	 */
+	public static ReversiGame[] games(Phase phase) {
+		Random random = new Random(SEED + phase.ordinal());
+		ReversiGame[] games = new ReversiGame[POSITIONS_PER_PHASE];
+		int count = 0;
+		while (count < games.length) {
+			ReversiGame game = new ReversiGame();
+			game.setListener(GameListener.NONE);
+			for (int ply = 0; ply < phase.getPly() && !game.isGameOver(); ply++) {
+				MoveScore[] moves = game.getPossibleMoves();
+				MoveScore move = moves[random.nextInt(moves.length)];
+				game.placeDisk(move.getRow(), move.getColumn());
+			}
+			if (!game.isGameOver()) {
+				games[count++] = game;
+			}
+		}
+		return games;
+	}
+
+	/**
+	 * @return a copy of the game's position for the array implementation
+	 */
+	public static ArrayReversiGame toArrayGame(ReversiGame game) {
+		return new ArrayReversiGame(game.getBoard(), game.getCurPlayer());
+	}
+}
@@ -0,0 +1,56 @@
+package reversi;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Complete random games per second on each board size, the same games as {@link RandomGameBenchmark}.
+ * Size 8 runs on the single-long bitboards, the other sizes on {@link BitsetBoard}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardSizeBenchmark {
+	private static final long SEED = 20240611L;
+
+	@Param({"6", "8", "10", "12"})
+	public int size;
+
+	private SplittableRandom random;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		this.random = new SplittableRandom(SEED);
+	}
+
+	/**
+	 * @return the winner, so the game can't be optimized away
+	 */
+	@Benchmark
+	public int randomGame() {
+		ReversiGame game = new ReversiGame(this.size);
+		game.setListener(GameListener.NONE);
+		while (!game.isGameOver()) {
+			MoveScore[] moves = game.getPossibleMoves();
+			MoveScore move = moves[this.random.nextInt(moves.length)];
+			game.placeDisk(move.getRow(), move.getColumn());
+		}
+		return game.getWinner();
+	}
+}
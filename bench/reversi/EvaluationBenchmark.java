@@ -0,0 +1,78 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the {@link PatternEvaluator}: a full evaluation, one move's incremental update and take-back, and
+ * recomputing all the pattern indices from scratch for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+	@Param({"OPENING", "MIDGAME", "ENDGAME"})
+	public BenchmarkPositions.Phase phase;
+
+	private final PatternEvaluator[] evaluators = new PatternEvaluator[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final long[] playerOneDisks = new long[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final long[] playerTwoDisks = new long[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final int[] players = new int[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final int[] squares = new int[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final long[] flips = new long[BenchmarkPositions.POSITIONS_PER_PHASE];
+	private final int[] indices = new int[Patterns.INSTANCES];
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ReversiGame[] games = BenchmarkPositions.games(this.phase);
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		for (int i = 0; i < games.length; i++) {
+			ReversiGame game = games[i];
+			this.playerOneDisks[i] = game.getDisks(ReversiGame.PLAYER_ONE);
+			this.playerTwoDisks[i] = game.getDisks(ReversiGame.PLAYER_TWO);
+			this.players[i] = game.getCurPlayer();
+			game.getPossibleMoves(this.players[i], moves);
+			this.squares[i] = PackedMove.square(moves[0]);
+			game.makeMove(this.squares[i]);
+			this.flips[i] = game.getLastMoveFlips();
+			this.evaluators[i] = new PatternEvaluator(EvaluationWeights.heuristic());
+			this.evaluators[i].setPosition(this.playerOneDisks[i], this.playerTwoDisks[i]);
+		}
+	}
+
+	@Benchmark
+	public int evaluate() {
+		int i = this.next++ & (BenchmarkPositions.POSITIONS_PER_PHASE - 1);
+		return this.evaluators[i].evaluate(this.players[i], this.playerOneDisks[i], this.playerTwoDisks[i]);
+	}
+
+	@Benchmark
+	public void playAndUndo() {
+		int i = this.next++ & (BenchmarkPositions.POSITIONS_PER_PHASE - 1);
+		this.evaluators[i].play(this.players[i], this.squares[i], this.flips[i]);
+		this.evaluators[i].undo(this.players[i], this.squares[i], this.flips[i]);
+	}
+
+	@Benchmark
+	public int[] computeIndices() {
+		int i = this.next++ & (BenchmarkPositions.POSITIONS_PER_PHASE - 1);
+		Patterns.computeIndices(this.playerOneDisks[i], this.playerTwoDisks[i], this.indices);
+		return this.indices;
+	}
+}
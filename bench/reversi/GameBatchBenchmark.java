@@ -0,0 +1,55 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Complete random games per second in a {@link GameBatch} of each size, to compare with {@link RandomGameBenchmark}.
+ * Each invocation plays {@link #GAMES} games.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBatchBenchmark {
+	private static final long SEED = 20240611L;
+	private static final int GAMES = 1024;
+
+	@Param({"1", "64", "1024"})
+	public int size;
+
+	private GameBatch.Policy policy;
+	private int winners;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		this.policy = GameBatch.randomPolicy(SEED);
+	}
+
+	/**
+	 * @return a sum over the results, so the games can't be optimized away
+	 */
+	@Benchmark
+	@OperationsPerInvocation(GAMES)
+	public int randomGames() {
+		this.winners = 0;
+		new GameBatch(this.size, GAMES).playAll(this.policy, (gameId, playerOneDisks, playerTwoDisks, plies) ->
+				this.winners += Long.bitCount(playerOneDisks) > Long.bitCount(playerTwoDisks) ? 1 : 0);
+		return this.winners;
+	}
+}
@@ -0,0 +1,174 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the single-position {@link ReversiGame} operations over the benchmark corpus.
+ * Scores are per position.
+ *
+ * A game caches its move masks, so repeating a query on an unchanged position only reads the cache. The benchmarks
+ * of cached queries reload the position first with {@link ReversiGame#setPosition(Position)}, which
+ * {@link #setPosition(Blackhole)} measures on its own; the {@code Cached} variants measure the cache hit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+	@Param({"OPENING", "MIDGAME", "ENDGAME"})
+	public BenchmarkPositions.Phase phase;
+
+	private ReversiGame[] games;
+	/** The position of each game, reloaded to clear the game's move mask cache. */
+	private Position[] positions;
+	/** The first legal move of each game, so placeDisk always plays a valid move. */
+	private MoveScore[] firstMoves;
+	private final int[] moveBuffer = new int[ReversiGame.MOVE_BUFFER_SIZE];
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.games = BenchmarkPositions.games(this.phase);
+		this.firstMoves = new MoveScore[this.games.length];
+		this.positions = new Position[this.games.length];
+		for (int i = 0; i < this.games.length; i++) {
+			this.firstMoves[i] = this.games[i].getPossibleMoves()[0];
+			this.positions[i] = this.games[i].getPosition();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void getPossibleMoves(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			blackhole.consume(game.getPossibleMoves());
+		}
+	}
+
+	/**
+	 * The allocation-free variant, expected to report 0 bytes per operation.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void getPossibleMovesIntoBuffer(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			int count = game.getPossibleMoves(game.getCurPlayer(), this.moveBuffer);
+			blackhole.consume(count);
+			blackhole.consume(this.moveBuffer[0]);
+		}
+	}
+
+	/**
+	 * The baseline of the benchmarks that reload the position before a query.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void setPosition(Blackhole blackhole) {
+		for (int i = 0; i < this.games.length; i++) {
+			ReversiGame game = this.games[i];
+			game.setPosition(this.positions[i]);
+			blackhole.consume(game.getCurPlayer());
+		}
+	}
+
+	/**
+	 * Generates the move mask of a freshly loaded position, see {@link #setPosition(Blackhole)}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void getMoveMask(Blackhole blackhole) {
+		for (int i = 0; i < this.games.length; i++) {
+			ReversiGame game = this.games[i];
+			game.setPosition(this.positions[i]);
+			blackhole.consume(game.getMoveMask(game.getCurPlayer()));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void getMoveMaskCached(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			blackhole.consume(game.getMoveMask(game.getCurPlayer()));
+		}
+	}
+
+	/**
+	 * calcMoveFlips for every square of the board.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void calcMoveFlips(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			int player = game.getCurPlayer();
+			for (int row = 0; row < 8; row++) {
+				for (int col = 0; col < 8; col++) {
+					blackhole.consume(game.calcMoveFlips(player, row, col));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies each game and plays its first legal move on the copy, so the corpus itself is never changed.
+	 * The copy is part of the measured time.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void placeDisk(Blackhole blackhole) {
+		for (int i = 0; i < this.games.length; i++) {
+			ReversiGame game = new ReversiGame(this.games[i]);
+			blackhole.consume(game.placeDisk(this.firstMoves[i].getRow(), this.firstMoves[i].getColumn()));
+		}
+	}
+
+	/**
+	 * Plays the first legal move of each game and takes it back, the way a search explores a move.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void makeAndUndoMove(Blackhole blackhole) {
+		for (int i = 0; i < this.games.length; i++) {
+			ReversiGame game = this.games[i];
+			blackhole.consume(game.makeMove(this.firstMoves[i].getRow(), this.firstMoves[i].getColumn()));
+			blackhole.consume(game.undoMove());
+		}
+	}
+
+	/**
+	 * Game-over detection on a freshly loaded position, see {@link #setPosition(Blackhole)}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void isGameOver(Blackhole blackhole) {
+		for (int i = 0; i < this.games.length; i++) {
+			ReversiGame game = this.games[i];
+			game.setPosition(this.positions[i]);
+			blackhole.consume(game.isGameOver());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void isGameOverCached(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			blackhole.consume(game.isGameOver());
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package reversi;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Move generation throughput of the bitboard {@link ReversiGame} against the {@link ArrayReversiGame} baseline.
+ * Scores are per position of the phase's corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+	@Param({"OPENING", "MIDGAME", "ENDGAME"})
+	public BenchmarkPositions.Phase phase;
+
+	private ReversiGame[] games;
+	private ArrayReversiGame[] arrayGames;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.games = BenchmarkPositions.games(this.phase);
+		this.arrayGames = new ArrayReversiGame[this.games.length];
+		for (int i = 0; i < this.games.length; i++) {
+			this.arrayGames[i] = BenchmarkPositions.toArrayGame(this.games[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void bitboardGetPossibleMoves(Blackhole blackhole) {
+		for (ReversiGame game : this.games) {
+			blackhole.consume(game.getPossibleMoves());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkPositions.POSITIONS_PER_PHASE)
+	public void arrayGetPossibleMoves(Blackhole blackhole) {
+		for (ArrayReversiGame game : this.arrayGames) {
+			blackhole.consume(game.getPossibleMoves());
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package reversi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time per {@link OpeningBook} lookup, in a book built from random games. The probed positions alternate between
+ * positions of the book (in random symmetric versions) and positions that aren't in it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OpeningBookBenchmark {
+	private static final int GAMES = 20_000;
+	private static final int PROBES = 1024;
+
+	private Path file;
+	private OpeningBook book;
+	private final long[] own = new long[PROBES];
+	private final long[] opp = new long[PROBES];
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		SplittableRandom random = new SplittableRandom(20240611L);
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		int[] squares = new int[Bitboard.SQUARES];
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		for (int g = 0; g < GAMES; g++) {
+			ReversiGame game = new ReversiGame();
+			int count = 0;
+			while (!game.isGameOver()) {
+				int player = game.getCurPlayer();
+				if (g < PROBES && count == 2 + g % 10) {
+					// Probe a symmetric version of a position of this game, and every other probe a position after it
+					int symmetry = g % BoardSymmetry.COUNT;
+					this.own[g] = BoardSymmetry.apply(symmetry, game.getDisks(player));
+					this.opp[g] = BoardSymmetry.apply(symmetry, game.getDisks(ReversiGame.opponentPlayer(player)));
+					if (g % 2 == 1) {
+						this.own[g] |= 1L;
+						this.opp[g] &= ~1L;
+					}
+				}
+				int moveCount = game.getPossibleMoves(player, moves);
+				squares[count] = PackedMove.square(moves[random.nextInt(moveCount)]);
+				game.makeMove(squares[count++]);
+			}
+			builder.addGame(squares, count);
+		}
+		this.file = Files.createTempFile("opening-book", ".bin");
+		builder.write(this.file);
+		this.book = OpeningBook.open(this.file);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.book.close();
+		Files.deleteIfExists(this.file);
+	}
+
+	@Benchmark
+	public int getBestMove() {
+		int i = this.next++ & (PROBES - 1);
+		return this.book.getBestMove(this.own[i], this.opp[i], 1);
+	}
+}
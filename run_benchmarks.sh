@@ -0,0 +1,34 @@
+#!/bin/bash
+# Project version 1.1
+#
+# Builds the JMH benchmarks in bench/ against src/ and runs them with the GC profiler,
+# so allocation rates (gc.alloc.rate.norm = bytes per operation) are reported next to the scores.
+# Any arguments are passed on to JMH, e.g.:
+#   ./run_benchmarks.sh GameBenchmark
+#   ./run_benchmarks.sh RandomGame -rf json -rff bench_output.json
+
+JMH_VERSION=1.37
+MAVEN_CENTRAL=https://repo1.maven.org/maven2
+
+# Download the JMH jars on first use
+mkdir -p bench-lib
+for JAR in \
+  org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar \
+  org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar \
+  net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar \
+  org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar; do
+  if [ ! -f "bench-lib/$(basename $JAR)" ]; then
+    curl -sSf -o "bench-lib/$(basename $JAR)" "$MAVEN_CENTRAL/$JAR" || { echo "Failed to download $JAR"; exit 1; }
+  fi
+done
+
+# Compile the sources and the benchmarks. The JMH annotation processor generates the benchmark harness classes.
+rm -rf bench-out
+javac -cp "bench-lib/*" -d bench-out $(find src bench -name "*.java")
+
+if [ $? -ne 0 ]; then
+  echo "Compilation failed."
+  exit 1
+fi
+
+java -cp "bench-lib/*:bench-out" org.openjdk.jmh.Main -prof gc "$@"
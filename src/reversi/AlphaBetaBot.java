@@ -0,0 +1,338 @@
+package reversi;
+
+/**
+ * A search bot: negamax with alpha-beta pruning and iterative deepening, under a hard time budget per move.
+ *
+ * The search runs on a private copy of the game and walks the tree with {@link ReversiGame#makeMove(int)} and
+ * {@link ReversiGame#undoMove()}, so no boards are copied while searching. Moves are ordered by the number of flips
+ * they cause, and the best move of the previous depth is searched first. When the time runs out the depth being
+ * searched is abandoned and the best move of the last completed depth is returned.
+ *
+ * Searched positions are kept in a {@link TranspositionTable}, which cuts off transpositions and supplies the best
+ * move to try first. The table can be shared between bots, and keeps its entries from move to move.
+ *
+ * With {@link #SOLVE_EMPTIES} or fewer empty squares left the position is solved exactly by the {@link EndgameSolver}
+ * instead, which usually takes a few milliseconds. The solver may use half of the time budget; if it doesn't finish
+ * in time, the iterative search runs with what is left.
+ *
+ * Positions at the search horizon are scored by a {@link PatternEvaluator}, which is updated move by move along the
+ * search path.
+ *
+ * If the bot is given an {@link OpeningBook}, positions found in the book are played from it without searching.
+ */
+public class AlphaBetaBot implements ReversiBot {
+	public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+	public static final int SOLVE_EMPTIES = 12;
+	/** Book moves played in fewer games than this are ignored. */
+	public static final int BOOK_MIN_GAMES = 2;
+
+	/** Scores at or above this are won games, see {@link #finalScore(int)}. */
+	static final int WIN_SCORE = 1_000_000;
+	static final int INFINITY = 2 * WIN_SCORE;
+
+	private static final int MAX_PLY = Bitboard.SQUARES;
+	/** The clock is checked once every this many nodes. Must be a power of 2. */
+	private static final int TIME_CHECK_INTERVAL = 1024;
+	/** A time budget far enough in the future to never run out, for searches to a fixed depth. */
+	private static final long NO_TIME_LIMIT_NANOS = Long.MAX_VALUE / 4;
+
+	private final ReversiGame game;
+	private final long timeBudgetNanos;
+	private final TranspositionTable transpositionTable;
+	private final OpeningBook openingBook;
+	private final PatternEvaluator evaluator;
+	private final int[][] moveBuffers = new int[MAX_PLY + 1][ReversiGame.MOVE_BUFFER_SIZE];
+
+	private ReversiGame searchGame;
+	private long deadline;
+	/** The transposition table generation of the running search. */
+	private int generation;
+	private boolean timeUp;
+	private long nodes;
+	private int completedDepth;
+
+	public AlphaBetaBot(ReversiGame game) {
+		this(game, DEFAULT_TIME_BUDGET_MILLIS);
+	}
+
+	/**
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 */
+	public AlphaBetaBot(ReversiGame game, long timeBudgetMillis) {
+		this(game, timeBudgetMillis, new TranspositionTable());
+	}
+
+	/**
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 * @param transpositionTable the table to keep searched positions in
+	 */
+	public AlphaBetaBot(ReversiGame game, long timeBudgetMillis, TranspositionTable transpositionTable) {
+		this(game, timeBudgetMillis, transpositionTable, null);
+	}
+
+	/**
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 * @param transpositionTable the table to keep searched positions in
+	 * @param openingBook the book to play from, or null to always search
+	 */
+	public AlphaBetaBot(ReversiGame game, long timeBudgetMillis, TranspositionTable transpositionTable,
+			OpeningBook openingBook) {
+		this(game, timeBudgetMillis, transpositionTable, openingBook, EvaluationWeights.getDefault());
+	}
+
+	/**
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 * @param transpositionTable the table to keep searched positions in
+	 * @param openingBook the book to play from, or null to always search
+	 * @param weights the weights of the evaluation function
+	 */
+	public AlphaBetaBot(ReversiGame game, long timeBudgetMillis, TranspositionTable transpositionTable,
+			OpeningBook openingBook, EvaluationWeights weights) {
+		this.game = game;
+		this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+		this.transpositionTable = transpositionTable;
+		this.openingBook = openingBook;
+		this.evaluator = new PatternEvaluator(weights);
+	}
+
+	/**
+	 * @return the best move found in the time budget, with the search score as its score,
+	 *         or null if the current player has no moves
+	 */
+	public MoveScore getNextMove() {
+		return search(MAX_PLY, this.timeBudgetNanos);
+	}
+
+	/**
+	 * Searches the current position to the given depth, however long it takes. Positions with {@link #SOLVE_EMPTIES}
+	 * or fewer empty squares are solved exactly instead.
+	 * @return the best move with the search score as its score, or null if the current player has no moves
+	 */
+	public MoveScore getBestMove(int depth) {
+		return search(depth, NO_TIME_LIMIT_NANOS);
+	}
+
+	private MoveScore search(int maxDepth, long budgetNanos) {
+		this.deadline = System.nanoTime() + budgetNanos;
+		this.timeUp = false;
+		this.nodes = 0;
+		this.completedDepth = 0;
+		this.searchGame = new ReversiGame(this.game);
+		this.generation = this.transpositionTable.newSearch();
+
+		int player = this.searchGame.getCurPlayer();
+		int[] rootMoves = this.moveBuffers[0];
+		int count = this.searchGame.getPossibleMoves(player, rootMoves);
+		if (count == 0) {
+			return null;
+		}
+		if (this.openingBook != null) {
+			MoveScore bookMove = this.openingBook.getBestMove(this.searchGame, BOOK_MIN_GAMES);
+			if (bookMove != null) {
+				return bookMove;
+			}
+		}
+		sortByFlips(rootMoves, count);
+		int bestMove = rootMoves[0];
+		this.evaluator.setPosition(this.searchGame.getDisks(ReversiGame.PLAYER_ONE),
+				this.searchGame.getDisks(ReversiGame.PLAYER_TWO));
+		int bestScore = 0;
+
+		int empties = Long.bitCount(~(this.searchGame.getDisks(ReversiGame.PLAYER_ONE)
+				| this.searchGame.getDisks(ReversiGame.PLAYER_TWO)));
+		if (empties <= SOLVE_EMPTIES) {
+			EndgameSolver.Result result = new EndgameSolver().solve(this.searchGame,
+					this.deadline - budgetNanos / 2);
+			if (result != null) {
+				this.nodes = result.getNodes();
+				this.completedDepth = empties;
+				int diff = result.getScore();
+				int score = diff == 0 ? 0 : Integer.signum(diff) * WIN_SCORE + diff;
+				return new MoveScore(Bitboard.row(result.getBestMove()), Bitboard.col(result.getBestMove()), score);
+			}
+		}
+		for (int depth = 1; depth <= Math.min(empties, maxDepth); depth++) {
+			int alpha = -INFINITY;
+			int depthBestIndex = 0;
+			for (int i = 0; i < count && !this.timeUp; i++) {
+				int square = PackedMove.square(rootMoves[i]);
+				makeMove(player, square);
+				int score = valueAfterMove(player, depth - 1, alpha, INFINITY, 1);
+				undoMove(player, square);
+				if (!this.timeUp && score > alpha) {
+					alpha = score;
+					depthBestIndex = i;
+				}
+			}
+			if (this.timeUp) {
+				break;
+			}
+			bestMove = rootMoves[depthBestIndex];
+			bestScore = alpha;
+			this.completedDepth = depth;
+			// Search the best move first at the next depth
+			System.arraycopy(rootMoves, 0, rootMoves, 1, depthBestIndex);
+			rootMoves[0] = bestMove;
+		}
+		if (Metrics.ENABLED) {
+			Metrics.add(Metrics.Counter.NODES, this.nodes);
+		}
+		return new MoveScore(PackedMove.row(bestMove), PackedMove.col(bestMove), bestScore);
+	}
+
+	/**
+	 * @return the number of positions visited by the last call to {@link #getNextMove()}
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * @return the deepest search that was completed by the last call to {@link #getNextMove()}
+	 */
+	public int getCompletedDepth() {
+		return this.completedDepth;
+	}
+
+	/**
+	 * @return the value of the position right after the given player moved, from that player's point of view
+	 */
+	private int valueAfterMove(int player, int depth, int alpha, int beta, int ply) {
+		if (this.searchGame.getCurPlayer() == player) {
+			// The opponent has to pass (or the game is over), so the same player moves again
+			return negamax(depth, alpha, beta, ply);
+		}
+		return -negamax(depth, -beta, -alpha, ply);
+	}
+
+	/**
+	 * @return the value of the position for the player to move. Meaningless once {@link #timeUp} is set.
+	 */
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		if ((++this.nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - this.deadline >= 0) {
+			this.timeUp = true;
+		}
+		if (this.timeUp) {
+			return 0;
+		}
+		int player = this.searchGame.getCurPlayer();
+		if (depth == 0) {
+			return evaluate(player);
+		}
+
+		long hash = this.searchGame.getHash();
+		long entry = this.transpositionTable.probe(hash);
+		int hashMove = TranspositionTable.NO_MOVE;
+		if (entry != TranspositionTable.NO_ENTRY) {
+			hashMove = TranspositionTable.move(entry);
+			if (TranspositionTable.depth(entry) >= depth) {
+				int score = TranspositionTable.score(entry);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		int[] moves = this.moveBuffers[ply];
+		int count = this.searchGame.getPossibleMoves(player, moves);
+		if (count == 0) {
+			// The player to move always has a move unless the game is over
+			return finalScore(player);
+		}
+		sortByFlips(moves, count);
+		moveToFront(moves, count, hashMove);
+
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = TranspositionTable.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int square = PackedMove.square(moves[i]);
+			makeMove(player, square);
+			int score = valueAfterMove(player, depth - 1, alpha, beta, ply + 1);
+			undoMove(player, square);
+			if (score > best) {
+				best = score;
+				bestMove = square;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		if (this.timeUp) {
+			return 0;
+		}
+		int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+				: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+		this.transpositionTable.store(hash, depth, best, bound, bestMove, this.generation);
+		return best;
+	}
+
+	private void makeMove(int player, int square) {
+		this.searchGame.makeMove(square);
+		this.evaluator.play(player, square, this.searchGame.getLastMoveFlips());
+	}
+
+	private void undoMove(int player, int square) {
+		this.evaluator.undo(player, square, this.searchGame.getLastMoveFlips());
+		this.searchGame.undoMove();
+	}
+
+	/**
+	 * Static evaluation by the {@link PatternEvaluator}, from the given player's point of view.
+	 */
+	private int evaluate(int player) {
+		long playerOneDisks = this.searchGame.getDisks(ReversiGame.PLAYER_ONE);
+		long playerTwoDisks = this.searchGame.getDisks(ReversiGame.PLAYER_TWO);
+		long playerOneMoves = Bitboard.moves(playerOneDisks, playerTwoDisks);
+		long playerTwoMoves = Bitboard.moves(playerTwoDisks, playerOneDisks);
+		if (playerOneMoves == 0 && playerTwoMoves == 0) {
+			return finalScore(player);
+		}
+		return this.evaluator.evaluate(player, playerOneDisks, playerTwoDisks, playerOneMoves, playerTwoMoves);
+	}
+
+	/**
+	 * @return the score of a finished game for the given player: {@link #WIN_SCORE} plus the disk difference for a win,
+	 *         minus that for a loss, 0 for a tie
+	 */
+	private int finalScore(int player) {
+		int diff = Long.bitCount(this.searchGame.getDisks(player))
+				- Long.bitCount(this.searchGame.getDisks(ReversiGame.opponentPlayer(player)));
+		return diff == 0 ? 0 : Integer.signum(diff) * WIN_SCORE + diff;
+	}
+
+	/**
+	 * Moves the packed move on the given square to the front of the list, keeping the order of the others.
+	 */
+	static void moveToFront(int[] moves, int count, int square) {
+		for (int i = 0; i < count; i++) {
+			if (PackedMove.square(moves[i]) == square) {
+				int move = moves[i];
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = move;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Sorts packed moves by descending number of flips. Insertion sort, since move lists are short.
+	 */
+	static void sortByFlips(int[] moves, int count) {
+		for (int i = 1; i < count; i++) {
+			int move = moves[i];
+			int j = i - 1;
+			while (j >= 0 && PackedMove.flips(moves[j]) < PackedMove.flips(move)) {
+				moves[j + 1] = moves[j];
+				j--;
+			}
+			moves[j + 1] = move;
+		}
+	}
+}
@@ -0,0 +1,455 @@
+package reversi;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Answers "best move and score" queries for batches of positions, searching each position with an
+ * {@link AlphaBetaBot} to a fixed depth.
+ *
+ * Positions are reduced to a canonical form before anything else: the 8 symmetries of the board are folded with
+ * {@link BoardSymmetry#canonicalSymmetry(long, long)} and the disks are taken from the point of view of the player to
+ * move, so mirrored and colour-swapped versions of a position share one search. Results are kept in a size-bounded
+ * LRU cache keyed by the canonical position and the depth, and a query for a position that is already being searched
+ * waits for that search instead of starting another. The remaining searches run on a pool of worker threads, each
+ * with its own bot and transposition table.
+ *
+ * Results are handed to the caller as soon as they are known, not in query order. The service can be shared by
+ * concurrent batches.
+ *
+ * Usage: {@code java reversi.AnalysisService <positions file> [depth=8] [threads=cores]}. Every line of the file is a
+ * position in the format of {@link Position#toString()}. Results are printed as they complete, followed by the cache hit
+ * rate and the latencies.
+ */
+public class AnalysisService implements Closeable {
+	public static final int DEFAULT_CACHE_ENTRIES = 1 << 16;
+	public static final int DEFAULT_DEPTH = 8;
+	/** The transposition table size of each worker thread. */
+	private static final int TABLE_SIZE_MB = 16;
+	/** The number of searches queued or running per worker thread before reading more queries. */
+	private static final int QUEUED_SEARCHES_PER_THREAD = 4;
+
+	/**
+	 * The answer for a position.
+	 */
+	public static final class Result {
+		private final Position position;
+		private final int index;
+		private final MoveScore bestMove;
+		private final boolean searched;
+		private final long latencyNanos;
+
+		Result(Position position, int index, MoveScore bestMove, boolean searched, long latencyNanos) {
+			this.position = position;
+			this.index = index;
+			this.bestMove = bestMove;
+			this.searched = searched;
+			this.latencyNanos = latencyNanos;
+		}
+
+		public Position getPosition() {
+			return this.position;
+		}
+
+		/**
+		 * @return the index of the position in its batch, counting from 0
+		 */
+		public int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * @return the best move with its search score (see {@link AlphaBetaBot#getBestMove(int)}), or null if the
+		 *         player to move has no moves
+		 */
+		public MoveScore getBestMove() {
+			return this.bestMove;
+		}
+
+		/**
+		 * @return false if the result came from the cache or from the search of a symmetric position in the batch
+		 */
+		public boolean isSearched() {
+			return this.searched;
+		}
+
+		/**
+		 * @return the time from reading the query to handing out its result
+		 */
+		public long getLatencyNanos() {
+			return this.latencyNanos;
+		}
+	}
+
+	/**
+	 * A canonical position and search depth.
+	 */
+	private static final class Key {
+		final long own;
+		final long opp;
+		final int depth;
+
+		Key(long own, long opp, int depth) {
+			this.own = own;
+			this.opp = opp;
+			this.depth = depth;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return this.own == key.own && this.opp == key.opp && this.depth == key.depth;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(this.own * 31 + this.opp) * 31 + this.depth;
+		}
+	}
+
+	/**
+	 * A query waiting for the search of its canonical position.
+	 */
+	private static final class Waiter {
+		final Batch batch;
+		final Position position;
+		final int index;
+		final int symmetry;
+		final long startNanos;
+
+		Waiter(Batch batch, Position position, int index, int symmetry, long startNanos) {
+			this.batch = batch;
+			this.position = position;
+			this.index = index;
+			this.symmetry = symmetry;
+			this.startNanos = startNanos;
+		}
+	}
+
+	/**
+	 * The bot of a worker thread and the game it searches, with a transposition table kept from search to search.
+	 */
+	private static final class Worker {
+		final ReversiGame game = new ReversiGame();
+		final AlphaBetaBot bot = new AlphaBetaBot(this.game, AlphaBetaBot.DEFAULT_TIME_BUDGET_MILLIS,
+				new TranspositionTable(TABLE_SIZE_MB));
+
+		Worker() {
+			this.game.setListener(GameListener.NONE);
+		}
+	}
+
+	/**
+	 * The results consumer of one call to {@link #analyze}, and its queries still waiting for a result.
+	 */
+	private static final class Batch {
+		final Consumer<Result> results;
+		int pending;
+		/** Why a query of the batch will get no result, or null. */
+		IllegalStateException failure;
+
+		Batch(Consumer<Result> results) {
+			this.results = results;
+		}
+	}
+
+	private final ExecutorService pool;
+	private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+	private final Semaphore searchSlots;
+	private final int cacheEntries;
+	/** The canonical best square of each cached position, or -1 with no move, and its score. Guarded by this. */
+	private final LinkedHashMap<Key, int[]> cache;
+	/** The queries waiting for each running search. Guarded by this. */
+	private final Map<Key, List<Waiter>> searching = new HashMap<>();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private long queries;
+	private long cacheHits;
+	private long sharedSearches;
+	private boolean closed;
+
+	/**
+	 * @param threads the number of searches that run at the same time
+	 * @param cacheEntries the number of results kept
+	 */
+	public AnalysisService(int threads, int cacheEntries) {
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "analysis");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.searchSlots = new Semaphore(threads * QUEUED_SEARCHES_PER_THREAD);
+		this.cacheEntries = cacheEntries;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+				return size() > AnalysisService.this.cacheEntries;
+			}
+		};
+	}
+
+	/**
+	 * Analyzes every query of the iterator to the given depth, and waits for all the results.
+	 * @param results receives the result of every query, in the order they complete. Calls for one batch are never
+	 *                concurrent, but may come from any thread.
+	 * @throws IllegalStateException if the service is closed or the search of a query failed. The other results of
+	 *                               the batch are then no longer passed on.
+	 */
+	public void analyze(Iterator<Position> queries, int depth, Consumer<Result> results) throws InterruptedException {
+		Batch batch = new Batch(results);
+		// A failed batch stops reading queries at once, their results would be dropped anyway
+		for (int index = 0; !isFailed(batch) && queries.hasNext(); index++) {
+			Position position = queries.next();
+			long startNanos = System.nanoTime();
+			int player = position.getPlayer();
+			long own = position.getDisks(player);
+			long opp = position.getDisks(ReversiGame.opponentPlayer(player));
+			int symmetry = BoardSymmetry.canonicalSymmetry(own, opp);
+			Key key = new Key(BoardSymmetry.apply(symmetry, own), BoardSymmetry.apply(symmetry, opp), depth);
+			Waiter waiter = new Waiter(batch, position, index, symmetry, startNanos);
+
+			synchronized (batch) {
+				batch.pending++;
+			}
+			int[] cached;
+			boolean search = false;
+			synchronized (this) {
+				if (this.closed) {
+					throw new IllegalStateException("The analysis service is closed");
+				}
+				this.queries++;
+				cached = this.cache.get(key);
+				if (cached != null) {
+					this.cacheHits++;
+				} else if (this.searching.containsKey(key)) {
+					this.searching.get(key).add(waiter);
+					this.sharedSearches++;
+				} else {
+					List<Waiter> waiters = new ArrayList<>();
+					waiters.add(waiter);
+					this.searching.put(key, waiters);
+					search = true;
+				}
+			}
+			if (cached != null) {
+				deliver(waiter, cached, false);
+			} else if (search) {
+				submit(key);
+			}
+		}
+		synchronized (batch) {
+			while (batch.pending > 0 && batch.failure == null) {
+				batch.wait();
+			}
+			if (batch.failure != null) {
+				throw batch.failure;
+			}
+		}
+	}
+
+	private static boolean isFailed(Batch batch) {
+		synchronized (batch) {
+			return batch.failure != null;
+		}
+	}
+
+	/**
+	 * Starts the search of a position in {@link #searching}, or fails its waiters if the search can't be started.
+	 */
+	private void submit(Key key) throws InterruptedException {
+		try {
+			this.searchSlots.acquire();
+		} catch (InterruptedException e) {
+			fail(key, "The query that started the search was interrupted", e);
+			throw e;
+		}
+		try {
+			this.pool.execute(() -> search(key));
+		} catch (RejectedExecutionException e) {
+			this.searchSlots.release();
+			fail(key, "The analysis service is closed", e);
+			throw new IllegalStateException("The analysis service is closed", e);
+		}
+	}
+
+	private void search(Key key) {
+		int[] entry;
+		try {
+			Worker worker = this.workers.get();
+			worker.game.setPosition(key.own, key.opp, ReversiGame.PLAYER_ONE);
+			MoveScore move = worker.bot.getBestMove(key.depth);
+			entry = move == null ? new int[] {-1, 0}
+					: new int[] {Bitboard.square(move.getRow(), move.getColumn()), move.getScore()};
+		} catch (RuntimeException e) {
+			fail(key, "The search failed", e);
+			return;
+		} finally {
+			this.searchSlots.release();
+		}
+		List<Waiter> waiters;
+		synchronized (this) {
+			this.cache.put(key, entry);
+			waiters = this.searching.remove(key);
+		}
+		if (waiters == null) {
+			// The service was closed during the search, and the waiters have failed already
+			return;
+		}
+		boolean searched = true;
+		for (Waiter waiter : waiters) {
+			deliver(waiter, entry, searched);
+			searched = false;
+		}
+	}
+
+	/**
+	 * Maps the canonical result back to the waiter's position and hands it to its batch.
+	 */
+	private void deliver(Waiter waiter, int[] entry, boolean searched) {
+		MoveScore move = null;
+		if (entry[0] >= 0) {
+			int square = BoardSymmetry.invertSquare(waiter.symmetry, entry[0]);
+			move = new MoveScore(Bitboard.row(square), Bitboard.col(square), entry[1]);
+		}
+		long latency = System.nanoTime() - waiter.startNanos;
+		synchronized (this) {
+			this.latencies.record(latency);
+		}
+		Batch batch = waiter.batch;
+		synchronized (batch) {
+			if (batch.failure == null) {
+				batch.results.accept(new Result(waiter.position, waiter.index, move, searched, latency));
+			}
+			if (--batch.pending == 0) {
+				batch.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Removes a position from {@link #searching} and fails the batches waiting for it.
+	 */
+	private void fail(Key key, String message, Exception cause) {
+		List<Waiter> waiters;
+		synchronized (this) {
+			waiters = this.searching.remove(key);
+		}
+		if (waiters != null) {
+			for (Waiter waiter : waiters) {
+				fail(waiter.batch, new IllegalStateException(message, cause));
+			}
+		}
+	}
+
+	private static void fail(Batch batch, IllegalStateException failure) {
+		synchronized (batch) {
+			if (batch.failure == null) {
+				batch.failure = failure;
+			}
+			batch.pending--;
+			batch.notifyAll();
+		}
+	}
+
+	/**
+	 * @return the number of queries analyzed so far
+	 */
+	public synchronized long getQueries() {
+		return this.queries;
+	}
+
+	/**
+	 * @return the number of queries answered from the cache
+	 */
+	public synchronized long getCacheHits() {
+		return this.cacheHits;
+	}
+
+	/**
+	 * @return the number of queries that waited for the search of a symmetric or identical position instead of
+	 *         searching
+	 */
+	public synchronized long getSharedSearches() {
+		return this.sharedSearches;
+	}
+
+	/**
+	 * @return the fraction of queries answered without a search of their own
+	 */
+	public synchronized double getHitRate() {
+		return this.queries == 0 ? 0 : (double) (this.cacheHits + this.sharedSearches) / this.queries;
+	}
+
+	/**
+	 * @return a copy of the latency of every query so far
+	 */
+	public synchronized LatencyHistogram getLatencies() {
+		LatencyHistogram copy = new LatencyHistogram();
+		copy.add(this.latencies);
+		return copy;
+	}
+
+	/**
+	 * Stops the worker threads. Batches still running fail with an {@link IllegalStateException}, and so do later
+	 * ones.
+	 */
+	@Override
+	public void close() {
+		List<List<Waiter>> waiting;
+		synchronized (this) {
+			this.closed = true;
+			waiting = new ArrayList<>(this.searching.values());
+			this.searching.clear();
+		}
+		for (List<Waiter> waiters : waiting) {
+			for (Waiter waiter : waiters) {
+				fail(waiter.batch, new IllegalStateException("The analysis service was closed"));
+			}
+		}
+		// Searches that never ran give their slots back, so that a batch waiting for one sees the pool is shut down
+		this.searchSlots.release(this.pool.shutdownNow().size());
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1) {
+			System.err.println("Usage: java reversi.AnalysisService <positions file> [depth] [threads]");
+			System.exit(1);
+		}
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		try (AnalysisService service = new AnalysisService(threads, DEFAULT_CACHE_ENTRIES);
+				BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]))) {
+			Iterator<Position> queries = reader.lines().filter(line -> !line.isBlank()).map(Position::parse).iterator();
+			service.analyze(queries, depth, result -> {
+				MoveScore move = result.getBestMove();
+				System.out.println(result.getIndex() + ": " + (move == null ? "pass"
+						: "(" + move.getRow() + ", " + move.getColumn() + ") score " + move.getScore()));
+			});
+			double seconds = (System.nanoTime() - start) / 1e9;
+			LatencyHistogram latencies = service.getLatencies();
+			System.out.printf("%d positions in %.1f seconds (%.0f positions/sec), %d searched, hit rate %.1f%% "
+					+ "(%d cached, %d shared)%n", service.getQueries(), seconds, service.getQueries() / seconds,
+					service.getQueries() - service.getCacheHits() - service.getSharedSearches(),
+					service.getHitRate() * 100, service.getCacheHits(), service.getSharedSearches());
+			System.out.printf("Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", latencies.getValueAtPercentile(50) / 1e6,
+					latencies.getValueAtPercentile(99) / 1e6, latencies.getMax() / 1e6);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package reversi;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes game events as lines of text on a background thread, so the game never waits for the output.
+ * Lines are written through a buffer that is flushed whenever no more events are waiting.
+ * Call {@link #close()} to write the remaining events and stop the thread.
+ */
+public class AsyncTextGameListener implements GameListener, Closeable {
+	/** Put on the queue by {@link #close()} to stop the writer thread. */
+	private static final String END = new String("END");
+
+	private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+	private final Writer out;
+	private final Thread writerThread;
+
+	/**
+	 * A listener that writes to the console.
+	 */
+	public AsyncTextGameListener() {
+		this(new OutputStreamWriter(System.out));
+	}
+
+	public AsyncTextGameListener(Writer out) {
+		this.out = new BufferedWriter(out);
+		this.writerThread = new Thread(this::writeLines, "game-events");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	@Override
+	public void placingDisk(int player, int row, int col) {
+		this.lines.add("Place disk: " + player + " at row: " + row + " column: " + col);
+	}
+
+	@Override
+	public void movePlayed(int player, int row, int col, int flips) {
+		this.lines.add("Player " + player + " played row: " + row + " column: " + col + ", flipped " + flips);
+	}
+
+	@Override
+	public void passed(int player) {
+		this.lines.add("Player " + player + " has no move and passes");
+	}
+
+	@Override
+	public void gameOver(int winner) {
+		this.lines.add(winner == 0 ? "Game over: tie" : "Game over: player " + winner + " wins");
+	}
+
+	private void writeLines() {
+		try {
+			while (true) {
+				String line = this.lines.take();
+				if (line == END) {
+					break;
+				}
+				this.out.write(line);
+				this.out.write(System.lineSeparator());
+				if (this.lines.isEmpty()) {
+					this.out.flush();
+				}
+			}
+			this.out.flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			System.err.println("Failed to write game events: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Waits for the events so far to be written, and stops the writer thread.
+	 */
+	@Override
+	public void close() {
+		this.lines.add(END);
+		try {
+			this.writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
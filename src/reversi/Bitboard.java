@@ -0,0 +1,140 @@
+package reversi;
+
+/**
+ * Bitboard helpers for an 8x8 reversi board.
+ *
+ * A board side is stored as a single {@code long}: square (row, col) is bit {@code row * 8 + col},
+ * so bit 0 is the top-left corner (0, 0) and bit 63 is the bottom-right corner (7, 7).
+ * Move generation and flip computation work on whole masks with shifts instead of walking
+ * the board one cell at a time.
+ */
+public final class Bitboard {
+	public static final int SIZE = 8;
+	public static final int SQUARES = SIZE * SIZE;
+
+	/** All squares except column 0. Used after shifting east so disks don't wrap to the next row. */
+	static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+	/** All squares except column 7. Used after shifting west so disks don't wrap to the previous row. */
+	static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+	/** Row increments of the 8 directions, matching {@link #COL_INCS}. */
+	static final int[] ROW_INCS = {-1, -1, -1, 0, 0, 1, 1, 1};
+	/** Column increments of the 8 directions, matching {@link #ROW_INCS}. */
+	static final int[] COL_INCS = {-1, 0, 1, -1, 1, -1, 0, 1};
+	/** Left shift amount of each direction, negative for an unsigned right shift. */
+	private static final int[] SHIFTS = new int[8];
+	/** The mask applied after shifting in each direction to drop disks that wrapped around a row. */
+	private static final long[] WRAP_MASKS = new long[8];
+
+	static {
+		for (int d = 0; d < 8; d++) {
+			SHIFTS[d] = ROW_INCS[d] * SIZE + COL_INCS[d];
+			WRAP_MASKS[d] = COL_INCS[d] == 1 ? NOT_FIRST_COLUMN : COL_INCS[d] == -1 ? NOT_LAST_COLUMN : -1L;
+		}
+	}
+
+	private Bitboard() {
+	}
+
+	public static int square(int row, int col) {
+		return row * SIZE + col;
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int col(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int row, int col) {
+		return 1L << square(row, col);
+	}
+
+	/**
+	 * Shifts every disk of the mask one step in the given direction. Disks that fall off the board disappear.
+	 * @param rowInc row increment (-1, 0, or 1)
+	 * @param colInc column increment (-1, 0, or 1)
+	 */
+	static long shift(long mask, int rowInc, int colInc) {
+		int amount = rowInc * SIZE + colInc;
+		long shifted = amount > 0 ? mask << amount : mask >>> -amount;
+		if (colInc == 1) {
+			return shifted & NOT_FIRST_COLUMN;
+		}
+		if (colInc == -1) {
+			return shifted & NOT_LAST_COLUMN;
+		}
+		return shifted;
+	}
+
+	/**
+	 * Shifts every disk of the mask one step in direction d (an index into {@link #ROW_INCS}).
+	 */
+	static long shift(long mask, int d) {
+		int amount = SHIFTS[d];
+		return (amount > 0 ? mask << amount : mask >>> -amount) & WRAP_MASKS[d];
+	}
+
+	/**
+	 * @param own disks of the player to move
+	 * @param opp disks of the opponent
+	 * @return a mask of all the empty squares where the player to move can legally play
+	 */
+	public static long moves(long own, long opp) {
+		if (Metrics.ENABLED) {
+			Metrics.increment(Metrics.Counter.MOVE_GENERATIONS);
+		}
+		long empty = ~(own | opp);
+		long moves = 0;
+		for (int d = 0; d < 8; d++) {
+			long run = shift(own, d) & opp;
+			run |= shift(run, d) & opp;
+			run |= shift(run, d) & opp;
+			run |= shift(run, d) & opp;
+			run |= shift(run, d) & opp;
+			run |= shift(run, d) & opp;
+			moves |= shift(run, d) & empty;
+		}
+		return moves;
+	}
+
+	/**
+	 * @return a mask of the opponent disks that are flipped when the player to move plays on the given square
+	 *         in a single direction. The square itself is not checked for being empty.
+	 */
+	public static long flipsInDirection(long own, long opp, int square, int rowInc, int colInc) {
+		long flips = 0;
+		long cursor = shift(1L << square, rowInc, colInc);
+		while ((cursor & opp) != 0) {
+			flips |= cursor;
+			cursor = shift(cursor, rowInc, colInc);
+		}
+		return (cursor & own) != 0 ? flips : 0;
+	}
+
+	/**
+	 * @return a mask of all the opponent disks flipped when the player to move plays on the given square.
+	 *         0 means the move is illegal. The square itself is not checked for being empty.
+	 */
+	public static long flips(long own, long opp, int square) {
+		if (Metrics.ENABLED) {
+			Metrics.increment(Metrics.Counter.FLIP_COMPUTATIONS);
+		}
+		long start = 1L << square;
+		long flips = 0;
+		for (int d = 0; d < 8; d++) {
+			long run = 0;
+			long cursor = shift(start, d);
+			while ((cursor & opp) != 0) {
+				run |= cursor;
+				cursor = shift(cursor, d);
+			}
+			if ((cursor & own) != 0) {
+				flips |= run;
+			}
+		}
+		return flips;
+	}
+}
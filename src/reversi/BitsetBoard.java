@@ -0,0 +1,369 @@
+package reversi;
+
+import java.util.Arrays;
+
+/**
+ * The position of a {@link ReversiGame} on a board of any even size from {@link #MIN_SIZE} to {@link #MAX_SIZE}
+ * other than 8x8, which has its own single-{@code long} {@link Bitboard} code.
+ *
+ * Each player's disks are a bitset of several {@code long} words: square (row, col) is bit {@code row * size + col}.
+ * Move generation shifts whole bitsets like {@link Bitboard#moves(long, long)} does, and flips are found by walking
+ * the lines from the played square. The legal moves of each player are cached until the disks change, and an
+ * {@code int[][]} view of the board is kept in sync like in {@link ReversiGame}.
+ *
+ * The player to move is tracked by the game, so all the methods take the player as an argument.
+ */
+final class BitsetBoard {
+	static final int MIN_SIZE = 4;
+	/** The largest size whose squares fit in the 8 bits of a {@link PackedMove}. */
+	static final int MAX_SIZE = 16;
+
+	final int size;
+	final int squares;
+	private final int words;
+	/** Left shift amount of each direction (as in {@link Bitboard#ROW_INCS}), negative for a right shift. */
+	private final int[] shifts = new int[8];
+	/** The squares a disk can be on after a shift in each direction, without having wrapped around a row. */
+	private final long[][] wrapMasks;
+	private final long[] boardMask;
+
+	final int[][] board;
+	private boolean boardExposed;
+	private final long[][] disks;
+	private final int[] diskCounts = new int[3];
+	private final long[][] moveMasks;
+	private int validMoveMasks;
+
+	private final int[] undoSquares;
+	private final int[] undoPlayers;
+	private final long[][] undoFlips;
+	private int undoCount;
+
+	// Scratch space of the move generation
+	private final long[] run;
+	private final long[] shifted;
+	private final long[] empty;
+
+	BitsetBoard(int size) {
+		if (size < MIN_SIZE || size > MAX_SIZE || size % 2 != 0) {
+			throw new IllegalArgumentException("Board size must be even and from " + MIN_SIZE + " to " + MAX_SIZE
+					+ ", got " + size);
+		}
+		this.size = size;
+		this.squares = size * size;
+		this.words = (this.squares + 63) >>> 6;
+		this.boardMask = new long[this.words];
+		for (int square = 0; square < this.squares; square++) {
+			this.boardMask[square >>> 6] |= 1L << square;
+		}
+		this.wrapMasks = new long[8][this.words];
+		for (int d = 0; d < 8; d++) {
+			this.shifts[d] = Bitboard.ROW_INCS[d] * size + Bitboard.COL_INCS[d];
+			for (int square = 0; square < this.squares; square++) {
+				int col = square % size;
+				boolean wrapped = (Bitboard.COL_INCS[d] == 1 && col == 0) || (Bitboard.COL_INCS[d] == -1 && col == size - 1);
+				if (!wrapped) {
+					this.wrapMasks[d][square >>> 6] |= 1L << square;
+				}
+			}
+		}
+		this.board = new int[size][size];
+		this.disks = new long[3][this.words];
+		this.moveMasks = new long[3][this.words];
+		this.undoSquares = new int[this.squares];
+		this.undoPlayers = new int[this.squares];
+		this.undoFlips = new long[this.squares][this.words];
+		this.run = new long[this.words];
+		this.shifted = new long[this.words];
+		this.empty = new long[this.words];
+
+		int center = size / 2;
+		setSquare(ReversiGame.PLAYER_ONE, center - 1, center - 1);
+		setSquare(ReversiGame.PLAYER_TWO, center - 1, center);
+		setSquare(ReversiGame.PLAYER_TWO, center, center - 1);
+		setSquare(ReversiGame.PLAYER_ONE, center, center);
+	}
+
+	/**
+	 * Copies the position of the other board, without its undo history.
+	 */
+	BitsetBoard(BitsetBoard other) {
+		this(other.size);
+		other.sync();
+		for (int player = ReversiGame.PLAYER_ONE; player <= ReversiGame.PLAYER_TWO; player++) {
+			System.arraycopy(other.disks[player], 0, this.disks[player], 0, this.words);
+			this.diskCounts[player] = other.diskCounts[player];
+		}
+		for (int row = 0; row < this.size; row++) {
+			System.arraycopy(other.board[row], 0, this.board[row], 0, this.size);
+		}
+		this.validMoveMasks = 0;
+	}
+
+	int[][] getBoard() {
+		this.boardExposed = true;
+		return this.board;
+	}
+
+	/**
+	 * Rebuilds the bitsets from the board array if it was handed out by {@link #getBoard()}.
+	 */
+	private void sync() {
+		if (!this.boardExposed) {
+			return;
+		}
+		this.boardExposed = false;
+		boolean changed = false;
+		for (int row = 0; row < this.size; row++) {
+			for (int col = 0; col < this.size; col++) {
+				int square = row * this.size + col;
+				int player = this.board[row][col];
+				for (int p = ReversiGame.PLAYER_ONE; p <= ReversiGame.PLAYER_TWO; p++) {
+					boolean had = test(this.disks[p], square);
+					if (had != (player == p)) {
+						changed = true;
+						this.disks[p][square >>> 6] ^= 1L << square;
+						this.diskCounts[p] += had ? -1 : 1;
+					}
+				}
+			}
+		}
+		if (changed) {
+			// The moves on the undo stack don't lead to this position anymore
+			this.undoCount = 0;
+			this.validMoveMasks = 0;
+		}
+	}
+
+	private static boolean test(long[] bits, int square) {
+		return (bits[square >>> 6] & 1L << square) != 0;
+	}
+
+	private void setSquare(int player, int row, int col) {
+		int square = row * this.size + col;
+		if (test(this.disks[player], square)) {
+			return;
+		}
+		int opponent = ReversiGame.opponentPlayer(player);
+		if (test(this.disks[opponent], square)) {
+			this.disks[opponent][square >>> 6] &= ~(1L << square);
+			this.diskCounts[opponent]--;
+		}
+		this.disks[player][square >>> 6] |= 1L << square;
+		this.diskCounts[player]++;
+		this.board[row][col] = player;
+		this.validMoveMasks = 0;
+	}
+
+	/**
+	 * Shifts every bit of src one step in direction d into dst, dropping bits that leave the board or wrap around.
+	 */
+	private void shift(long[] src, int d, long[] dst) {
+		int amount = this.shifts[d];
+		long[] mask = this.wrapMasks[d];
+		if (amount > 0) {
+			for (int w = this.words - 1; w >= 0; w--) {
+				long carry = w > 0 ? src[w - 1] >>> (64 - amount) : 0;
+				dst[w] = (src[w] << amount | carry) & mask[w];
+			}
+		} else {
+			int right = -amount;
+			for (int w = 0; w < this.words; w++) {
+				long carry = w < this.words - 1 ? src[w + 1] << (64 - right) : 0;
+				dst[w] = (src[w] >>> right | carry) & mask[w];
+			}
+		}
+	}
+
+	/**
+	 * @return the player's legal moves as a bitset, owned by this board and valid until the disks change
+	 */
+	private long[] moves(int player) {
+		long[] moves = this.moveMasks[player];
+		if ((this.validMoveMasks & 1 << player) != 0) {
+			return moves;
+		}
+		long[] own = this.disks[player];
+		long[] opp = this.disks[ReversiGame.opponentPlayer(player)];
+		for (int w = 0; w < this.words; w++) {
+			this.empty[w] = ~(own[w] | opp[w]) & this.boardMask[w];
+			moves[w] = 0;
+		}
+		for (int d = 0; d < 8; d++) {
+			shift(own, d, this.run);
+			for (int w = 0; w < this.words; w++) {
+				this.run[w] &= opp[w];
+			}
+			// A line of opponent disks is at most size - 2 long
+			for (int i = 0; i < this.size - 3; i++) {
+				shift(this.run, d, this.shifted);
+				for (int w = 0; w < this.words; w++) {
+					this.run[w] |= this.shifted[w] & opp[w];
+				}
+			}
+			shift(this.run, d, this.shifted);
+			for (int w = 0; w < this.words; w++) {
+				moves[w] |= this.shifted[w] & this.empty[w];
+			}
+		}
+		this.validMoveMasks |= 1 << player;
+		return moves;
+	}
+
+	int getMobility(int player) {
+		sync();
+		long[] moves = moves(player);
+		int count = 0;
+		for (long word : moves) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	int getDiskCount(int player) {
+		sync();
+		return this.diskCounts[player];
+	}
+
+	int getEmptyCount() {
+		sync();
+		return this.squares - this.diskCounts[ReversiGame.PLAYER_ONE] - this.diskCounts[ReversiGame.PLAYER_TWO];
+	}
+
+	/**
+	 * @param flips if not null, the flipped disks are added to it
+	 * @return the number of opponent disks flipped by the player playing (row, col) in the given direction
+	 */
+	private int flipsInDirection(int player, int row, int col, int rowInc, int colInc, long[] flips) {
+		long[] own = this.disks[player];
+		long[] opp = this.disks[ReversiGame.opponentPlayer(player)];
+		int count = 0;
+		int r = row + rowInc;
+		int c = col + colInc;
+		while (r >= 0 && r < this.size && c >= 0 && c < this.size && test(opp, r * this.size + c)) {
+			count++;
+			r += rowInc;
+			c += colInc;
+		}
+		if (count == 0 || r < 0 || r >= this.size || c < 0 || c >= this.size || !test(own, r * this.size + c)) {
+			return 0;
+		}
+		if (flips != null) {
+			for (int i = 1; i <= count; i++) {
+				int square = (row + i * rowInc) * this.size + col + i * colInc;
+				flips[square >>> 6] |= 1L << square;
+			}
+		}
+		return count;
+	}
+
+	int calcFlipsInDirection(int player, int row, int col, int rowInc, int colInc) {
+		sync();
+		return flipsInDirection(player, row, col, rowInc, colInc, null);
+	}
+
+	/**
+	 * Flips the opponent disks the player outflanks from (row, col) in the given direction.
+	 * @return the number of disks flipped
+	 */
+	int flipInDirection(int player, int row, int col, int rowInc, int colInc) {
+		sync();
+		long[] flips = this.shifted;
+		Arrays.fill(flips, 0);
+		int count = flipsInDirection(player, row, col, rowInc, colInc, flips);
+		setDisks(player, flips);
+		return count;
+	}
+
+	/**
+	 * @return the number of disks flipped by the player playing (row, col), 0 if the square isn't empty
+	 */
+	int calcMoveFlips(int player, int row, int col) {
+		sync();
+		if (this.board[row][col] != 0) {
+			return 0;
+		}
+		int count = 0;
+		for (int d = 0; d < 8; d++) {
+			count += flipsInDirection(player, row, col, Bitboard.ROW_INCS[d], Bitboard.COL_INCS[d], null);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the player's moves into the buffer as {@link PackedMove}s, ordered by square ({@code row * size + col}).
+	 * @return the number of moves
+	 */
+	int getPossibleMoves(int player, int[] moves) {
+		sync();
+		long[] moveMask = moves(player);
+		int count = 0;
+		for (int w = 0; w < this.words; w++) {
+			for (long word = moveMask[w]; word != 0; word &= word - 1) {
+				int square = w << 6 | Long.numberOfTrailingZeros(word);
+				moves[count++] = PackedMove.pack(square, calcMoveFlips(player, square / this.size, square % this.size));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Plays the player's move on (row, col) and remembers it for {@link #undoMove()}.
+	 * @return the number of disks flipped, or -1 if the move isn't legal
+	 */
+	int makeMove(int player, int row, int col) {
+		sync();
+		int square = row * this.size + col;
+		if (!test(moves(player), square)) {
+			return -1;
+		}
+		long[] flips = this.undoFlips[this.undoCount];
+		Arrays.fill(flips, 0);
+		int count = 0;
+		for (int d = 0; d < 8; d++) {
+			count += flipsInDirection(player, row, col, Bitboard.ROW_INCS[d], Bitboard.COL_INCS[d], flips);
+		}
+		this.undoSquares[this.undoCount] = square;
+		this.undoPlayers[this.undoCount] = player;
+		this.undoCount++;
+		setDisks(player, flips);
+		setSquare(player, row, col);
+		return count;
+	}
+
+	/**
+	 * Takes back the last move of {@link #makeMove(int, int, int)}.
+	 * @return the player who played it, or 0 if there's no move to take back
+	 */
+	int undoMove() {
+		sync();
+		if (this.undoCount == 0) {
+			return 0;
+		}
+		this.undoCount--;
+		int square = this.undoSquares[this.undoCount];
+		int player = this.undoPlayers[this.undoCount];
+		setDisks(ReversiGame.opponentPlayer(player), this.undoFlips[this.undoCount]);
+		this.disks[player][square >>> 6] &= ~(1L << square);
+		this.diskCounts[player]--;
+		this.board[square / this.size][square % this.size] = 0;
+		this.validMoveMasks = 0;
+		return player;
+	}
+
+	int getUndoDepth() {
+		return this.undoCount;
+	}
+
+	/**
+	 * Sets all the squares of the bitset to the given player.
+	 */
+	private void setDisks(int player, long[] mask) {
+		for (int w = 0; w < this.words; w++) {
+			for (long word = mask[w]; word != 0; word &= word - 1) {
+				int square = w << 6 | Long.numberOfTrailingZeros(word);
+				setSquare(player, square / this.size, square % this.size);
+			}
+		}
+	}
+}
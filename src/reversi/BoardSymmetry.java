@@ -0,0 +1,114 @@
+package reversi;
+
+/**
+ * The 8 symmetries of the board (rotations and reflections) applied to bitboards, and canonical positions: the
+ * same representative for all 8 symmetric versions of a position.
+ *
+ * Symmetry number s is built from 3 bits, applied in this order: bit 0 transposes the board (row and column swap),
+ * bit 1 mirrors the columns and bit 2 flips the rows. Symmetry 0 is the identity.
+ */
+public final class BoardSymmetry {
+	public static final int COUNT = 8;
+
+	private BoardSymmetry() {
+	}
+
+	/**
+	 * @return the mask with every square (row, col) moved to (7 - row, col)
+	 */
+	static long flipRows(long mask) {
+		return Long.reverseBytes(mask);
+	}
+
+	/**
+	 * @return the mask with every square (row, col) moved to (row, 7 - col)
+	 */
+	static long mirrorColumns(long mask) {
+		mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+		mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+		return ((mask >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((mask & 0x0F0F0F0F0F0F0F0FL) << 4);
+	}
+
+	/**
+	 * @return the mask with every square (row, col) moved to (col, row)
+	 */
+	static long transpose(long mask) {
+		long t = 0x0F0F0F0F00000000L & (mask ^ (mask << 28));
+		mask ^= t ^ (t >>> 28);
+		t = 0x3333000033330000L & (mask ^ (mask << 14));
+		mask ^= t ^ (t >>> 14);
+		t = 0x5500550055005500L & (mask ^ (mask << 7));
+		return mask ^ t ^ (t >>> 7);
+	}
+
+	public static long apply(int symmetry, long mask) {
+		if ((symmetry & 1) != 0) {
+			mask = transpose(mask);
+		}
+		if ((symmetry & 2) != 0) {
+			mask = mirrorColumns(mask);
+		}
+		if ((symmetry & 4) != 0) {
+			mask = flipRows(mask);
+		}
+		return mask;
+	}
+
+	/**
+	 * Undoes {@link #apply(int, long)}.
+	 */
+	public static long invert(int symmetry, long mask) {
+		if ((symmetry & 4) != 0) {
+			mask = flipRows(mask);
+		}
+		if ((symmetry & 2) != 0) {
+			mask = mirrorColumns(mask);
+		}
+		if ((symmetry & 1) != 0) {
+			mask = transpose(mask);
+		}
+		return mask;
+	}
+
+	public static int applyToSquare(int symmetry, int square) {
+		return Long.numberOfTrailingZeros(apply(symmetry, 1L << square));
+	}
+
+	public static int invertSquare(int symmetry, int square) {
+		return Long.numberOfTrailingZeros(invert(symmetry, 1L << square));
+	}
+
+	/**
+	 * @return the symmetry that turns the position into its canonical form: the smallest (own, opp) pair, compared as
+	 *         unsigned numbers, among the 8 symmetric versions
+	 */
+	public static int canonicalSymmetry(long own, long opp) {
+		int best = 0;
+		long bestOwn = own;
+		long bestOpp = opp;
+		for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+			long symOwn = apply(symmetry, own);
+			int compare = Long.compareUnsigned(symOwn, bestOwn);
+			if (compare < 0) {
+				best = symmetry;
+				bestOwn = symOwn;
+				bestOpp = apply(symmetry, opp);
+			} else if (compare == 0) {
+				long symOpp = apply(symmetry, opp);
+				if (Long.compareUnsigned(symOpp, bestOpp) < 0) {
+					best = symmetry;
+					bestOpp = symOpp;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return a hash of the position that is the same for all its 8 symmetric versions
+	 */
+	public static long canonicalHash(long own, long opp) {
+		int symmetry = canonicalSymmetry(own, opp);
+		return Zobrist.hash(apply(symmetry, own), apply(symmetry, opp), ReversiGame.PLAYER_ONE);
+	}
+}
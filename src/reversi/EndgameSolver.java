@@ -0,0 +1,355 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves endgame positions exactly: the final disk difference with perfect play from both sides, and a move that
+ * achieves it.
+ *
+ * The search is alpha-beta straight on the bitboards. With many empty squares left, moves are tried fastest-first
+ * (the move that leaves the opponent the fewest replies first), and moves into regions with an odd number of empty
+ * squares go before the others. Near the end only the parity ordering is used, since counting replies costs more
+ * than it saves. At the root the first move is searched alone to get a bound, and the other moves are then searched
+ * in parallel on a fork-join pool, sharing the best score found so far (young brothers wait). A solve can be given a
+ * deadline, after which it gives up.
+ *
+ * Usage: {@code java reversi.EndgameSolver [empties] [positions]} solves positions reached by random play and
+ * prints the throughput.
+ */
+public class EndgameSolver {
+	/** Scores are disk differences, so they're always inside (-INFINITY, INFINITY). */
+	private static final int INFINITY = Bitboard.SQUARES + 1;
+	/** Below this many empty squares moves are only ordered by parity. */
+	private static final int FASTEST_FIRST_EMPTIES = 7;
+	/** The clock is checked once every this many nodes. Must be a power of 2. */
+	private static final int TIME_CHECK_INTERVAL = 1024;
+	/** A time budget far enough in the future to never run out. */
+	private static final long NO_TIME_LIMIT_NANOS = Long.MAX_VALUE / 4;
+	private static final long[] QUADRANTS = {
+			0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+	};
+
+	/**
+	 * The solution of a position.
+	 */
+	public static class Result {
+		private final int score;
+		private final int bestMove;
+		private final long nodes;
+		private final long nanos;
+
+		Result(int score, int bestMove, long nodes, long nanos) {
+			this.score = score;
+			this.bestMove = bestMove;
+			this.nodes = nodes;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return the final disk difference (the player to move's disks minus the opponent's) with perfect play
+		 */
+		public int getScore() {
+			return this.score;
+		}
+
+		/**
+		 * @return the square ({@code row * 8 + col}) of a best move, or -1 if the player to move has no move
+		 */
+		public int getBestMove() {
+			return this.bestMove;
+		}
+
+		public long getNodes() {
+			return this.nodes;
+		}
+
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		public double getNodesPerSecond() {
+			return this.nanos == 0 ? 0 : this.nodes * 1e9 / this.nanos;
+		}
+	}
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * A solver that splits the root on the common fork-join pool.
+	 */
+	public EndgameSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public EndgameSolver(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Solves the game's position for its current player.
+	 */
+	public Result solve(ReversiGame game) {
+		return solve(game, System.nanoTime() + NO_TIME_LIMIT_NANOS);
+	}
+
+	/**
+	 * Solves the game's position for its current player, unless it takes past the deadline.
+	 * @param deadline the {@link System#nanoTime()} at which to give up
+	 * @return the solution, or null if the deadline was reached first
+	 */
+	public Result solve(ReversiGame game, long deadline) {
+		int player = game.getCurPlayer();
+		return solve(game.getDisks(player), game.getDisks(ReversiGame.opponentPlayer(player)), deadline);
+	}
+
+	/**
+	 * Solves the position with the root split across the pool.
+	 * @param own disks of the player to move
+	 * @param opp disks of the opponent
+	 */
+	public Result solve(long own, long opp) {
+		return solve(own, opp, System.nanoTime() + NO_TIME_LIMIT_NANOS);
+	}
+
+	/**
+	 * Solves the position with the root split across the pool, unless it takes past the deadline.
+	 * @param own disks of the player to move
+	 * @param opp disks of the opponent
+	 * @param deadline the {@link System#nanoTime()} at which to give up
+	 * @return the solution, or null if the deadline was reached first
+	 */
+	public Result solve(long own, long opp, long deadline) {
+		long start = System.nanoTime();
+		Search first = new Search(deadline);
+		int empties = Long.bitCount(~(own | opp));
+		long moves = Bitboard.moves(own, opp);
+		if (moves == 0) {
+			int score = first.negamax(own, opp, -INFINITY, INFINITY, empties);
+			if (Metrics.ENABLED) {
+				Metrics.add(Metrics.Counter.NODES, first.nodes);
+			}
+			return first.timeUp ? null : new Result(score, -1, first.nodes, System.nanoTime() - start);
+		}
+
+		int[] order = new int[Long.bitCount(moves)];
+		first.orderMoves(own, opp, moves, order);
+
+		int bestMove = PackedMove.square(order[0]);
+		int bestScore = -first.searchMove(own, opp, bestMove, -INFINITY, INFINITY, empties);
+		if (first.timeUp) {
+			return null;
+		}
+		AtomicInteger alpha = new AtomicInteger(bestScore);
+
+		List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+		List<Search> searches = new ArrayList<>();
+		for (int i = 1; i < order.length; i++) {
+			int square = PackedMove.square(order[i]);
+			Search search = new Search(deadline);
+			searches.add(search);
+			tasks.add(this.pool.submit(() -> {
+				int bound = alpha.get();
+				int score = -search.searchMove(own, opp, square, -INFINITY, -bound, empties);
+				if (score > bound) {
+					// Exact, since the score is inside the window it was searched with
+					alpha.accumulateAndGet(score, Math::max);
+					return new int[] {square, score};
+				}
+				return null;
+			}));
+		}
+
+		long nodes = first.nodes;
+		boolean timeUp = false;
+		for (int i = 0; i < tasks.size(); i++) {
+			int[] moveScore = tasks.get(i).join();
+			nodes += searches.get(i).nodes;
+			timeUp |= searches.get(i).timeUp;
+			if (moveScore != null && moveScore[1] > bestScore) {
+				bestMove = moveScore[0];
+				bestScore = moveScore[1];
+			}
+		}
+		if (Metrics.ENABLED) {
+			Metrics.add(Metrics.Counter.NODES, nodes);
+		}
+		return timeUp ? null : new Result(bestScore, bestMove, nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Solves the position on the calling thread only.
+	 * @return the final disk difference with perfect play, for the player to move
+	 */
+	public static int solveSerial(long own, long opp) {
+		return new Search(System.nanoTime() + NO_TIME_LIMIT_NANOS).negamax(own, opp, -INFINITY, INFINITY,
+				Long.bitCount(~(own | opp)));
+	}
+
+	/**
+	 * The state of one thread's search: its node count, its deadline and its move ordering buffers.
+	 */
+	private static class Search {
+		long nodes;
+		final long deadline;
+		/** Set once the deadline passed, after which scores are meaningless. */
+		boolean timeUp;
+		/** Move ordering buffers, indexed by the number of empty squares. */
+		private final int[][] orderBuffers = new int[Bitboard.SQUARES + 1][];
+
+		Search(long deadline) {
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @return the score of the position after playing the move, for the opponent
+		 */
+		int searchMove(long own, long opp, int square, int alpha, int beta, int empties) {
+			long flips = Bitboard.flips(own, opp, square);
+			return negamax(opp & ~flips, own | flips | (1L << square), alpha, beta, empties - 1);
+		}
+
+		int negamax(long own, long opp, int alpha, int beta, int empties) {
+			if ((++this.nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - this.deadline >= 0) {
+				this.timeUp = true;
+			}
+			if (this.timeUp) {
+				return 0;
+			}
+			long moves = Bitboard.moves(own, opp);
+			if (moves == 0) {
+				if (Bitboard.moves(opp, own) == 0) {
+					return Long.bitCount(own) - Long.bitCount(opp);
+				}
+				return -negamax(opp, own, -beta, -alpha, empties);
+			}
+
+			int best = -INFINITY;
+			if (empties < FASTEST_FIRST_EMPTIES) {
+				long odd = oddRegions(~(own | opp));
+				for (int pass = 0; pass < 2; pass++) {
+					long candidates = pass == 0 ? moves & odd : moves & ~odd;
+					while (candidates != 0) {
+						int square = Long.numberOfTrailingZeros(candidates);
+						candidates &= candidates - 1;
+						int score = -searchMove(own, opp, square, -beta, -alpha, empties);
+						if (score > best) {
+							best = score;
+							if (score > alpha) {
+								alpha = score;
+								if (alpha >= beta) {
+									return best;
+								}
+							}
+						}
+					}
+				}
+				return best;
+			}
+
+			int[] order = this.orderBuffers[empties];
+			if (order == null) {
+				order = new int[ReversiGame.MOVE_BUFFER_SIZE];
+				this.orderBuffers[empties] = order;
+			}
+			int count = orderMoves(own, opp, moves, order);
+			for (int i = 0; i < count; i++) {
+				int score = -searchMove(own, opp, PackedMove.square(order[i]), -beta, -alpha, empties);
+				if (score > best) {
+					best = score;
+					if (score > alpha) {
+						alpha = score;
+						if (alpha >= beta) {
+							break;
+						}
+					}
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Fills the buffer with the moves, fastest-first with moves into odd regions first among equals.
+		 * The moves are packed with the sort key in place of the flips.
+		 * @return the number of moves
+		 */
+		int orderMoves(long own, long opp, long moves, int[] order) {
+			long odd = oddRegions(~(own | opp));
+			int count = 0;
+			while (moves != 0) {
+				int square = Long.numberOfTrailingZeros(moves);
+				long squareBit = moves & -moves;
+				moves &= moves - 1;
+				long flips = Bitboard.flips(own, opp, square);
+				int replies = Long.bitCount(Bitboard.moves(opp & ~flips, own | flips | squareBit));
+				int key = replies * 2 + ((odd & squareBit) != 0 ? 0 : 1);
+				// Insertion sort by ascending key
+				int move = PackedMove.pack(square, key);
+				int j = count - 1;
+				while (j >= 0 && PackedMove.flips(order[j]) > key) {
+					order[j + 1] = order[j];
+					j--;
+				}
+				order[j + 1] = move;
+				count++;
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * @return the union of the board quadrants that have an odd number of empty squares
+	 */
+	static long oddRegions(long empty) {
+		long odd = 0;
+		for (long quadrant : QUADRANTS) {
+			if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+				odd |= quadrant;
+			}
+		}
+		return odd;
+	}
+
+	public static void main(String[] args) {
+		int empties = args.length > 0 ? Integer.parseInt(args[0]) : 18;
+		int positions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		Random random = new Random(empties);
+		EndgameSolver solver = new EndgameSolver();
+		long totalNodes = 0;
+		long totalNanos = 0;
+		for (int i = 0; i < positions; i++) {
+			ReversiGame game = randomPosition(random, empties);
+			Result result = solver.solve(game);
+			totalNodes += result.getNodes();
+			totalNanos += result.getNanos();
+			String bestMove = result.getBestMove() < 0 ? "pass"
+					: "(" + Bitboard.row(result.getBestMove()) + ", " + Bitboard.col(result.getBestMove()) + ")";
+			System.out.printf("Position %d: score %+d, best move %s, %,d nodes in %.2fs (%,.0f nodes/sec)%n", i + 1,
+					result.getScore(), bestMove, result.getNodes(), result.getNanos() / 1e9, result.getNodesPerSecond());
+		}
+		System.out.printf("Total: %,d nodes in %.2fs (%,.0f nodes/sec)%n", totalNodes, totalNanos / 1e9,
+				totalNodes * 1e9 / totalNanos);
+	}
+
+	/**
+	 * @return a game played randomly until exactly the given number of empty squares is left, with moves to play
+	 */
+	private static ReversiGame randomPosition(Random random, int empties) {
+		while (true) {
+			ReversiGame game = new ReversiGame();
+			int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+			while (!game.isGameOver() && Long.bitCount(~(game.getDisks(ReversiGame.PLAYER_ONE)
+					| game.getDisks(ReversiGame.PLAYER_TWO))) > empties) {
+				int count = game.getPossibleMoves(game.getCurPlayer(), moves);
+				game.makeMove(PackedMove.square(moves[random.nextInt(count)]));
+			}
+			if (!game.isGameOver()) {
+				return game;
+			}
+		}
+	}
+}
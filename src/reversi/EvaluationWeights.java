@@ -0,0 +1,161 @@
+package reversi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The weights of the {@link PatternEvaluator}, one set per game stage: a weight for every possible content of every
+ * pattern type (see {@link Patterns}), a mobility weight and a parity weight. Weights are in the evaluation's units,
+ * where a corner is worth about 100, and are from player one's point of view.
+ *
+ * File format (big endian): the magic number, the format version, the number of stages and the number of pattern
+ * weights per stage (4 bytes each), then for every stage its pattern weights, its mobility weight and its parity
+ * weight as 2-byte values.
+ *
+ * Weights are immutable once loaded and can be shared between threads.
+ */
+public final class EvaluationWeights {
+	static final int MAGIC = 0x52564557; // "RVEW"
+	static final int VERSION = 1;
+	/** Games are split into stages by the number of disks on the board: 4-15, 16-27, 28-39, 40-51 and 52-64. */
+	public static final int STAGES = 5;
+	private static final int DISKS_PER_STAGE = 12;
+
+	/** Where {@link #getDefault()} looks for weights, unless the {@code reversi.weights} system property is set. */
+	public static final String DEFAULT_FILE = "reversi-weights.bin";
+
+	final short[][] patterns;
+	final short[] mobility;
+	final short[] parity;
+
+	EvaluationWeights(short[][] patterns, short[] mobility, short[] parity) {
+		this.patterns = patterns;
+		this.mobility = mobility;
+		this.parity = parity;
+	}
+
+	/**
+	 * @return the stage of a position with the given number of disks on the board
+	 */
+	public static int stage(int disks) {
+		return Math.min(STAGES - 1, Math.max(0, disks - 4) / DISKS_PER_STAGE);
+	}
+
+	/**
+	 * @return the weights loaded from the file named by the {@code reversi.weights} system property or from
+	 *         {@link #DEFAULT_FILE} in the working directory, or the {@link #heuristic()} weights if there's no file.
+	 *         Loaded once.
+	 */
+	public static EvaluationWeights getDefault() {
+		return DefaultHolder.WEIGHTS;
+	}
+
+	private static class DefaultHolder {
+		static final EvaluationWeights WEIGHTS = loadDefault();
+
+		private static EvaluationWeights loadDefault() {
+			Path file = Paths.get(System.getProperty("reversi.weights", DEFAULT_FILE));
+			if (!Files.exists(file)) {
+				return heuristic();
+			}
+			try {
+				return load(file);
+			} catch (IOException e) {
+				System.err.println("Using heuristic evaluation weights, failed to load " + file + ": " + e.getMessage());
+				return heuristic();
+			}
+		}
+	}
+
+	/**
+	 * @return weights that value each disk by a fixed weight of its square (corners high, squares next to
+	 *         corners negative) plus 5 per move of mobility, the same in all stages
+	 */
+	public static EvaluationWeights heuristic() {
+		int[] squareWeights = {
+				100, -20, 10,  5,  5, 10, -20, 100,
+				-20, -50, -2, -2, -2, -2, -50, -20,
+				 10,  -2,  1,  1,  1,  1,  -2,  10,
+				  5,  -2,  1,  0,  0,  1,  -2,   5,
+				  5,  -2,  1,  0,  0,  1,  -2,   5,
+				 10,  -2,  1,  1,  1,  1,  -2,  10,
+				-20, -50, -2, -2, -2, -2, -50, -20,
+				100, -20, 10,  5,  5, 10, -20, 100,
+		};
+		// Each square's weight is split evenly between the instances covering it
+		short[] stageWeights = new short[Patterns.WEIGHTS_PER_STAGE];
+		for (int type = 0; type < Patterns.TYPES; type++) {
+			int[][] base = Patterns.baseSquares(type);
+			for (int index = 0; index < Patterns.TYPE_SIZES[type]; index++) {
+				double weight = 0;
+				int contents = index;
+				for (int[] cell : base) {
+					int square = Bitboard.square(cell[0], cell[1]);
+					double squareWeight = (double) squareWeights[square] / Patterns.SQUARE_INSTANCES[square].length;
+					weight += contents % 3 == 1 ? squareWeight : contents % 3 == 2 ? -squareWeight : 0;
+					contents /= 3;
+				}
+				stageWeights[Patterns.TYPE_OFFSETS[type] + index] = (short) Math.round(weight);
+			}
+		}
+		short[][] patterns = new short[STAGES][];
+		short[] mobility = new short[STAGES];
+		for (int stage = 0; stage < STAGES; stage++) {
+			patterns[stage] = stageWeights.clone();
+			mobility[stage] = 5;
+		}
+		return new EvaluationWeights(patterns, mobility, new short[STAGES]);
+	}
+
+	public static EvaluationWeights load(Path file) throws IOException {
+		try (InputStream fileIn = Files.newInputStream(file);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not an evaluation weights file");
+			}
+			int version = in.readInt();
+			int stages = in.readInt();
+			int weightsPerStage = in.readInt();
+			if (version != VERSION || stages != STAGES || weightsPerStage != Patterns.WEIGHTS_PER_STAGE) {
+				throw new IOException(file + " has unsupported version " + version + " or layout " + stages + "x"
+						+ weightsPerStage);
+			}
+			short[][] patterns = new short[STAGES][Patterns.WEIGHTS_PER_STAGE];
+			short[] mobility = new short[STAGES];
+			short[] parity = new short[STAGES];
+			for (int stage = 0; stage < STAGES; stage++) {
+				for (int i = 0; i < Patterns.WEIGHTS_PER_STAGE; i++) {
+					patterns[stage][i] = in.readShort();
+				}
+				mobility[stage] = in.readShort();
+				parity[stage] = in.readShort();
+			}
+			return new EvaluationWeights(patterns, mobility, parity);
+		}
+	}
+
+	public void save(Path file) throws IOException {
+		try (OutputStream fileOut = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(STAGES);
+			out.writeInt(Patterns.WEIGHTS_PER_STAGE);
+			for (int stage = 0; stage < STAGES; stage++) {
+				for (short weight : this.patterns[stage]) {
+					out.writeShort(weight);
+				}
+				out.writeShort(this.mobility[stage]);
+				out.writeShort(this.parity[stage]);
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package reversi;
+
+/**
+ * Many independent games played side by side, for workloads that play thousands of games: evaluation matches and
+ * training data generation.
+ *
+ * The games are held in structure-of-arrays form, one array per field indexed by slot, so advancing every game
+ * walks a few flat arrays instead of chasing a {@link ReversiGame} object per game. Each call to
+ * {@link #step(Policy, ResultListener)} plays one move in every unfinished game, choosing moves with the given
+ * {@link Policy}. Passes are played automatically. A finished game is reported to the {@link ResultListener} and its
+ * slot starts a new game right away, until the batch has started the number of games it was created for, so no
+ * memory is allocated after construction.
+ *
+ * A batch isn't thread safe. To use several cores, give each thread its own batch.
+ */
+public class GameBatch {
+	private static final long INITIAL_PLAYER_ONE_DISKS = Bitboard.bit(3, 3) | Bitboard.bit(4, 4);
+	private static final long INITIAL_PLAYER_TWO_DISKS = Bitboard.bit(3, 4) | Bitboard.bit(4, 3);
+	private static final long INITIAL_MOVES = Bitboard.moves(INITIAL_PLAYER_ONE_DISKS, INITIAL_PLAYER_TWO_DISKS);
+
+	/**
+	 * Chooses the moves of the games of a batch.
+	 */
+	@FunctionalInterface
+	public interface Policy {
+		/**
+		 * @param slot the slot of the game
+		 * @param own the disks of the player to move
+		 * @param opp the disks of the opponent
+		 * @param moves the legal moves, never empty
+		 * @return the square ({@code row * 8 + col}) to play, one of the moves
+		 */
+		int chooseMove(int slot, long own, long opp, long moves);
+	}
+
+	/**
+	 * Receives the games of a batch as they finish.
+	 */
+	@FunctionalInterface
+	public interface ResultListener {
+		/**
+		 * @param gameId the number of the game, counting the games started by the batch from 0
+		 * @param playerOneDisks the disks of player one at the end
+		 * @param playerTwoDisks the disks of player two at the end
+		 * @param plies the number of moves played, not counting passes
+		 */
+		void gameFinished(long gameId, long playerOneDisks, long playerTwoDisks, int plies);
+	}
+
+	private final int size;
+	private final long games;
+	/** The disks of the player to move in each slot. */
+	private final long[] own;
+	/** The disks of the opponent in each slot. */
+	private final long[] opp;
+	/** The legal moves of the player to move in each slot. */
+	private final long[] moves;
+	/** The player to move in each slot, 0 for an empty slot. */
+	private final byte[] players;
+	private final byte[] plies;
+	private final long[] gameIds;
+	private long gamesStarted;
+	private long gamesFinished;
+	private int activeCount;
+
+	/**
+	 * @param size the number of slots, that is games in play at once
+	 * @param games the number of games to play in all, or {@link Long#MAX_VALUE} to recycle slots forever
+	 */
+	public GameBatch(int size, long games) {
+		this.size = size;
+		this.games = games;
+		this.own = new long[size];
+		this.opp = new long[size];
+		this.moves = new long[size];
+		this.players = new byte[size];
+		this.plies = new byte[size];
+		this.gameIds = new long[size];
+		for (int slot = 0; slot < size; slot++) {
+			startGame(slot);
+		}
+	}
+
+	/**
+	 * Starts a new game in the slot, or empties it if all the games have been started.
+	 */
+	private void startGame(int slot) {
+		if (this.gamesStarted == this.games) {
+			this.players[slot] = 0;
+			return;
+		}
+		this.own[slot] = INITIAL_PLAYER_ONE_DISKS;
+		this.opp[slot] = INITIAL_PLAYER_TWO_DISKS;
+		this.moves[slot] = INITIAL_MOVES;
+		this.players[slot] = (byte) ReversiGame.PLAYER_ONE;
+		this.plies[slot] = 0;
+		this.gameIds[slot] = this.gamesStarted++;
+		this.activeCount++;
+	}
+
+	/**
+	 * Plays one move in every game in play. Games that finish are reported to the listener and their slots start
+	 * new games.
+	 * @return the number of games that finished
+	 * @throws IllegalStateException if the policy chooses an illegal move
+	 */
+	public int step(Policy policy, ResultListener listener) {
+		int finished = 0;
+		for (int slot = 0; slot < this.size; slot++) {
+			int player = this.players[slot];
+			if (player == 0) {
+				continue;
+			}
+			long own = this.own[slot];
+			long opp = this.opp[slot];
+			long moves = this.moves[slot];
+			int square = policy.chooseMove(slot, own, opp, moves);
+			if (square < 0 || square >= Bitboard.SQUARES || (moves & 1L << square) == 0) {
+				throw new IllegalStateException("Illegal move " + square + " in slot " + slot);
+			}
+			long flips = Bitboard.flips(own, opp, square);
+			own |= flips | 1L << square;
+			opp &= ~flips;
+			this.plies[slot]++;
+
+			long opponentMoves = Bitboard.moves(opp, own);
+			if (opponentMoves != 0) {
+				this.own[slot] = opp;
+				this.opp[slot] = own;
+				this.moves[slot] = opponentMoves;
+				this.players[slot] = (byte) ReversiGame.opponentPlayer(player);
+				continue;
+			}
+			long ownMoves = Bitboard.moves(own, opp);
+			if (ownMoves != 0) {
+				// The opponent passes
+				this.own[slot] = own;
+				this.opp[slot] = opp;
+				this.moves[slot] = ownMoves;
+				continue;
+			}
+			finished++;
+			this.gamesFinished++;
+			this.activeCount--;
+			boolean playerOne = player == ReversiGame.PLAYER_ONE;
+			listener.gameFinished(this.gameIds[slot], playerOne ? own : opp, playerOne ? opp : own, this.plies[slot]);
+			startGame(slot);
+		}
+		return finished;
+	}
+
+	/**
+	 * Steps until all the games have finished. Never returns if the batch recycles slots forever.
+	 */
+	public void playAll(Policy policy, ResultListener listener) {
+		while (this.activeCount > 0) {
+			step(policy, listener);
+		}
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return the number of games in play
+	 */
+	public int getActiveCount() {
+		return this.activeCount;
+	}
+
+	public long getGamesStarted() {
+		return this.gamesStarted;
+	}
+
+	public long getGamesFinished() {
+		return this.gamesFinished;
+	}
+
+	/**
+	 * @return the player to move in the slot, or 0 if the slot is empty
+	 */
+	public int getCurPlayer(int slot) {
+		return this.players[slot];
+	}
+
+	/**
+	 * @return the disks of the given player in the slot
+	 */
+	public long getDisks(int slot, int player) {
+		return player == this.players[slot] ? this.own[slot] : this.opp[slot];
+	}
+
+	/**
+	 * @return the id of the game in the slot, see {@link ResultListener#gameFinished}
+	 */
+	public long getGameId(int slot) {
+		return this.gameIds[slot];
+	}
+
+	/**
+	 * @return a policy choosing uniformly random moves with a xorshift64* generator. Not thread safe, like a batch.
+	 */
+	public static Policy randomPolicy(long seed) {
+		XorShiftRandom random = new XorShiftRandom(seed);
+		return (slot, own, opp, moves) -> random.nextSquare(moves);
+	}
+}
@@ -0,0 +1,53 @@
+package reversi;
+
+/**
+ * Receives the events of a {@link ReversiGame}. Only moves played with {@link ReversiGame#placeDisk(int, int)} are
+ * reported; {@link ReversiGame#makeMove(int, int)}, which searches use, plays silently. All methods do nothing by
+ * default, so a listener only implements the events it's interested in. Events are called on the thread that plays
+ * the move, so they should be quick.
+ */
+public interface GameListener {
+
+	/**
+	 * Ignores all events. Use it for headless games (simulations, searches) so no time goes to output.
+	 */
+	GameListener NONE = new GameListener() {
+	};
+
+	/**
+	 * The default listener of a new game: prints every call to {@link ReversiGame#placeDisk(int, int)} to the
+	 * console, to help debugging.
+	 */
+	GameListener CONSOLE = new GameListener() {
+		@Override
+		public void placingDisk(int player, int row, int col) {
+			System.out.println("Place disk: " + player + " at row: " + row + " column: " + col);
+		}
+	};
+
+	/**
+	 * {@link ReversiGame#placeDisk(int, int)} was called, before the move is checked to be legal.
+	 */
+	default void placingDisk(int player, int row, int col) {
+	}
+
+	/**
+	 * A move was played.
+	 * @param flips the number of disks the move flipped
+	 */
+	default void movePlayed(int player, int row, int col, int flips) {
+	}
+
+	/**
+	 * The given player has no move, so the opponent moves again.
+	 */
+	default void passed(int player) {
+	}
+
+	/**
+	 * The last move ended the game.
+	 * @param winner same as {@link ReversiGame#getWinner()}
+	 */
+	default void gameOver(int winner) {
+	}
+}
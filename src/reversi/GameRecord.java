@@ -0,0 +1,110 @@
+package reversi;
+
+import java.util.Arrays;
+
+/**
+ * A played game: the names of the two bots, the result and the moves. See {@link GameRecordWriter} for the file
+ * format.
+ */
+public class GameRecord {
+	private final String playerOneName;
+	private final String playerTwoName;
+	private final int winner;
+	private final int forfeited;
+	private final byte[] moves;
+
+	/**
+	 * @param winner same as {@link ReversiGame#getWinner()}: 0 for a tie, otherwise the winning player
+	 * @param forfeited the player that lost by forfeit, or 0 if the game was played out
+	 * @param moves the squares ({@code row * 8 + col}) of the moves in order
+	 * @param moveCount the number of moves
+	 */
+	public GameRecord(String playerOneName, String playerTwoName, int winner, int forfeited, int[] moves, int moveCount) {
+		this.playerOneName = playerOneName;
+		this.playerTwoName = playerTwoName;
+		this.winner = winner;
+		this.forfeited = forfeited;
+		this.moves = new byte[moveCount];
+		for (int i = 0; i < moveCount; i++) {
+			this.moves[i] = (byte) moves[i];
+		}
+	}
+
+	GameRecord(String playerOneName, String playerTwoName, int winner, int forfeited, byte[] moves) {
+		this.playerOneName = playerOneName;
+		this.playerTwoName = playerTwoName;
+		this.winner = winner;
+		this.forfeited = forfeited;
+		this.moves = moves;
+	}
+
+	public String getPlayerOneName() {
+		return this.playerOneName;
+	}
+
+	public String getPlayerTwoName() {
+		return this.playerTwoName;
+	}
+
+	public int getWinner() {
+		return this.winner;
+	}
+
+	public int getForfeited() {
+		return this.forfeited;
+	}
+
+	public int getMoveCount() {
+		return this.moves.length;
+	}
+
+	/**
+	 * @return the square ({@code row * 8 + col}) of the given move
+	 */
+	public int getMove(int index) {
+		return this.moves[index];
+	}
+
+	public int[] getMoves() {
+		int[] squares = new int[this.moves.length];
+		for (int i = 0; i < squares.length; i++) {
+			squares[i] = this.moves[i];
+		}
+		return squares;
+	}
+
+	byte[] getMoveBytes() {
+		return this.moves;
+	}
+
+	/**
+	 * Plays the moves on a new game.
+	 * @return the game after the last move
+	 * @throws IllegalStateException if one of the moves is illegal
+	 */
+	public ReversiGame replay() {
+		ReversiGame game = new ReversiGame();
+		for (int i = 0; i < this.moves.length; i++) {
+			if (!game.makeMove(this.moves[i])) {
+				throw new IllegalStateException("Illegal move " + i + " on square " + this.moves[i] + " in game "
+						+ this.playerOneName + " vs " + this.playerTwoName);
+			}
+		}
+		return game;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof GameRecord)) return false;
+		GameRecord other = (GameRecord) o;
+		return this.winner == other.winner && this.forfeited == other.forfeited
+				&& this.playerOneName.equals(other.playerOneName) && this.playerTwoName.equals(other.playerTwoName)
+				&& Arrays.equals(this.moves, other.moves);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * this.playerOneName.hashCode() + this.playerTwoName.hashCode()) + Arrays.hashCode(this.moves);
+	}
+}
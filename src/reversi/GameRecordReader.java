@@ -0,0 +1,95 @@
+package reversi;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the {@link GameRecord}s of a file written by {@link GameRecordWriter} one at a time, so files of any size can
+ * be scanned in constant memory.
+ *
+ * Usage: {@code java reversi.GameRecordReader <record file>...} replays every game and prints a summary.
+ */
+public class GameRecordReader implements Closeable {
+	private final DataInputStream in;
+
+	public GameRecordReader(Path file) throws IOException {
+		this(Files.newInputStream(file));
+	}
+
+	public GameRecordReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+		try {
+			if (this.in.readInt() != GameRecordWriter.MAGIC) {
+				throw new IOException("Not a game record file");
+			}
+			int version = this.in.readInt();
+			if (version != GameRecordWriter.VERSION) {
+				throw new IOException("Unsupported game record version " + version);
+			}
+		} catch (IOException e) {
+			this.in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return true if the file starts like a game record file
+	 */
+	public static boolean isGameRecordFile(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			return in.readInt() == GameRecordWriter.MAGIC;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the next record, or null at the end of the file
+	 * @throws EOFException if the file ends in the middle of a record
+	 */
+	public GameRecord next() throws IOException {
+		String playerOneName;
+		try {
+			playerOneName = this.in.readUTF();
+		} catch (EOFException e) {
+			return null;
+		}
+		String playerTwoName = this.in.readUTF();
+		int result = this.in.readUnsignedByte();
+		byte[] moves = new byte[this.in.readUnsignedByte()];
+		this.in.readFully(moves);
+		return new GameRecord(playerOneName, playerTwoName, result & 3, result >>> 2 & 3, moves);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+		long start = System.nanoTime();
+		long games = 0;
+		long moves = 0;
+		int[] wins = new int[3];
+		for (String arg : args) {
+			try (GameRecordReader reader = new GameRecordReader(Path.of(arg))) {
+				GameRecord record;
+				while ((record = reader.next()) != null) {
+					record.replay();
+					games++;
+					moves += record.getMoveCount();
+					wins[record.getWinner()]++;
+				}
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d games, %d moves: player one won %d, player two won %d, %d ties (%.0f games/sec replayed)%n",
+				games, moves, wins[ReversiGame.PLAYER_ONE], wins[ReversiGame.PLAYER_TWO], wins[0], games / seconds);
+	}
+}
@@ -0,0 +1,80 @@
+package reversi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link GameRecord}s to a game record file. Records are collected in memory and appended to the file in
+ * batches, so writing a game costs no I/O most of the time. Safe to use from several threads.
+ *
+ * File format (big endian): the magic number and the format version (4 bytes each), then the records one after the
+ * other. Each record is the two bot names (each a 2-byte length and modified UTF-8, as written by
+ * {@link DataOutputStream#writeUTF(String)}), one byte with the winner in the low 2 bits and the player that
+ * forfeited in the next 2, one byte with the number of moves, and one byte per move with its square.
+ */
+public class GameRecordWriter implements Closeable {
+	static final int MAGIC = 0x52564752; // "RVGR"
+	static final int VERSION = 1;
+	public static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+
+	private final FileChannel channel;
+	private final int batchBytes;
+	private final ByteArrayOutputStream batch;
+	private final DataOutputStream out;
+
+	public GameRecordWriter(Path file) throws IOException {
+		this(file, DEFAULT_BATCH_BYTES);
+	}
+
+	/**
+	 * Opens the file for appending, creating it if needed.
+	 * @param batchBytes the records are appended to the file once this many bytes are waiting
+	 */
+	public GameRecordWriter(Path file, int batchBytes) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.batchBytes = batchBytes;
+		this.batch = new ByteArrayOutputStream(batchBytes + 256);
+		this.out = new DataOutputStream(this.batch);
+		if (this.channel.size() == 0) {
+			this.out.writeInt(MAGIC);
+			this.out.writeInt(VERSION);
+		}
+	}
+
+	public synchronized void write(GameRecord record) throws IOException {
+		this.out.writeUTF(record.getPlayerOneName());
+		this.out.writeUTF(record.getPlayerTwoName());
+		this.out.writeByte(record.getWinner() | record.getForfeited() << 2);
+		this.out.writeByte(record.getMoveCount());
+		this.out.write(record.getMoveBytes());
+		if (this.batch.size() >= this.batchBytes) {
+			flush();
+		}
+	}
+
+	/**
+	 * Appends the records waiting in memory to the file.
+	 */
+	public synchronized void flush() throws IOException {
+		ByteBuffer bytes = ByteBuffer.wrap(this.batch.toByteArray());
+		while (bytes.hasRemaining()) {
+			this.channel.write(bytes);
+		}
+		this.batch.reset();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			this.channel.close();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package reversi;
+
+/**
+ * A histogram of durations in nanoseconds with about 3% precision, in the spirit of HdrHistogram: values below 64
+ * are counted exactly, larger values in 32 linear sub-buckets per power of 2. Recording is a few arithmetic
+ * operations and never allocates.
+ *
+ * Not thread safe. Record on one thread and {@link #add(LatencyHistogram)} histograms together to combine them.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long totalCount;
+	private long max;
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		this.counts[bucket(nanos)]++;
+		this.totalCount++;
+		if (nanos > this.max) {
+			this.max = nanos;
+		}
+	}
+
+	/**
+	 * Adds all the values recorded by the other histogram to this one.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.counts[i] += other.counts[i];
+		}
+		this.totalCount += other.totalCount;
+		this.max = Math.max(this.max, other.max);
+	}
+
+	public long getTotalCount() {
+		return this.totalCount;
+	}
+
+	public long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the value below which the given percentage of the recorded values fall (rounded up to the bucket's
+	 *         upper end, and never above {@link #getMax()}), or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (this.totalCount == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * this.totalCount));
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += this.counts[i];
+			if (count >= target) {
+				return Math.min(bucketUpperBound(i), this.max);
+			}
+		}
+		return this.max;
+	}
+
+	static int bucket(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (exponent + 1) * SUB_BUCKETS + (int) (value >>> exponent) - SUB_BUCKETS;
+	}
+
+	static long bucketUpperBound(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS - 1;
+		long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << exponent) - 1;
+	}
+}
@@ -0,0 +1,235 @@
+package reversi;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.function.Function;
+
+/**
+ * A bot that plays the moves of a remote opponent, connected through a {@link MatchServer}. It joins a game on the
+ * server when created. Every call to {@link #getNextMove()} first sends the moves played on the local game since the
+ * last call, then waits for the opponent's move.
+ *
+ * The local moves are found by comparing the local game with a copy of the server's game, so the local game must
+ * be 8x8 and only be changed by moves. Close the client when the game is over, which also sends the last local move.
+ *
+ * Usage: {@code java reversi.MatchClient <botClass> [games=1] [host=localhost] [port=7777] [moveMillis=100]} plays
+ * games of the named bot against the opponents the server finds, with the bot running in this process.
+ */
+public class MatchClient implements ReversiBot, Closeable {
+	private final ReversiGame game;
+	/** The server's position, which follows the local game one {@link #getNextMove()} behind. */
+	private final ReversiGame serverGame = new ReversiGame();
+	private final Socket socket;
+	private final DataInputStream in;
+	private final OutputStream out;
+	private final byte[] message = new byte[MatchProtocol.MESSAGE_SIZE];
+	private final int[][] moveBuffers = new int[Bitboard.SQUARES][ReversiGame.MOVE_BUFFER_SIZE];
+	private final int[] localMoves = new int[Bitboard.SQUARES];
+	/** The colour of the remote opponent, 0 until the game starts if it joined for any colour. */
+	private int player;
+	private boolean started;
+	private int winner = -1;
+
+	/**
+	 * Connects to the server and joins a game.
+	 * @param game the local game, in its initial position
+	 * @param player the colour the remote opponent plays in the local game, or 0 for whichever the server picks
+	 *               (see {@link #awaitStart()})
+	 */
+	public MatchClient(ReversiGame game, int player, InetSocketAddress server) throws IOException {
+		this.game = game;
+		this.player = player;
+		this.serverGame.setListener(GameListener.NONE);
+		this.socket = new Socket();
+		this.socket.setTcpNoDelay(true);
+		this.socket.connect(server);
+		this.in = new DataInputStream(this.socket.getInputStream());
+		this.out = this.socket.getOutputStream();
+		// This connection plays the local side on the server
+		send(MatchProtocol.JOIN, player == MatchProtocol.ANY_COLOUR ? player : ReversiGame.opponentPlayer(player));
+	}
+
+	/**
+	 * Waits until the server finds an opponent.
+	 * @return the colour of the remote opponent
+	 */
+	public int awaitStart() throws IOException {
+		if (!this.started) {
+			byte type = receive();
+			if (type != MatchProtocol.START) {
+				throw new IOException("Expected the game to start, got message " + type);
+			}
+			int opponent = ReversiGame.opponentPlayer(this.message[1]);
+			if (this.player != MatchProtocol.ANY_COLOUR && this.player != opponent) {
+				throw new IOException("Asked for the opponent to play " + this.player + " but it plays " + opponent);
+			}
+			this.player = opponent;
+			this.started = true;
+		}
+		return this.player;
+	}
+
+	/**
+	 * @return the winner announced by the server (0 for a tie), or -1 if the game isn't over
+	 */
+	public int getWinner() {
+		return this.winner;
+	}
+
+	/**
+	 * @return the opponent's move, or null if the server ended the game instead, see {@link #getWinner()}
+	 * @throws UncheckedIOException if the connection fails
+	 * @throws IllegalStateException if the local game didn't follow the server's game
+	 */
+	@Override
+	public MoveScore getNextMove() {
+		try {
+			awaitStart();
+			sendLocalMoves();
+			if (this.winner >= 0) {
+				return null;
+			}
+			byte type = receive();
+			if (type == MatchProtocol.END) {
+				this.winner = this.message[1];
+				return null;
+			}
+			int square = this.message[1] & 0xFF;
+			if (type != MatchProtocol.MOVED || square >= Bitboard.SQUARES) {
+				throw new IOException("Expected a move, got message " + type);
+			}
+			int flips = this.serverGame.calcMoveFlips(this.player, Bitboard.row(square), Bitboard.col(square));
+			if (!this.serverGame.makeMove(square)) {
+				throw new IllegalStateException("The server sent the illegal move " + square);
+			}
+			return new MoveScore(Bitboard.row(square), Bitboard.col(square), flips);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Sends the local moves not sent yet, and disconnects.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.socket.isClosed()) {
+			return;
+		}
+		try {
+			if (this.started && this.winner < 0) {
+				sendLocalMoves();
+			}
+		} finally {
+			this.socket.close();
+		}
+	}
+
+	/**
+	 * Plays on {@link #serverGame} and sends the local player's moves that lead to the local position.
+	 */
+	private void sendLocalMoves() throws IOException {
+		int moves = findLocalMoves(this.game.getDisks(ReversiGame.PLAYER_ONE),
+				this.game.getDisks(ReversiGame.PLAYER_TWO), 0);
+		if (moves < 0) {
+			throw new IllegalStateException("The local game doesn't follow the moves of the server's game");
+		}
+		for (int i = 0; i < moves; i++) {
+			send(MatchProtocol.MOVE, this.localMoves[i]);
+		}
+	}
+
+	/**
+	 * Searches the local player's moves from {@link #serverGame} that reach the given disks, usually a single move
+	 * or a few when the opponent had to pass. Leaves the moves played if found.
+	 * @param ply the number of moves already played by the search
+	 * @return the number of moves, stored in {@link #localMoves}, or -1 if the disks can't be reached
+	 */
+	private int findLocalMoves(long playerOne, long playerTwo, int ply) {
+		long serverPlayerOne = this.serverGame.getDisks(ReversiGame.PLAYER_ONE);
+		long serverPlayerTwo = this.serverGame.getDisks(ReversiGame.PLAYER_TWO);
+		if (serverPlayerOne == playerOne && serverPlayerTwo == playerTwo) {
+			return ply;
+		}
+		long occupied = playerOne | playerTwo;
+		int mover = this.serverGame.getCurPlayer();
+		if (mover == this.player || this.serverGame.isGameOver() || ((serverPlayerOne | serverPlayerTwo) & ~occupied) != 0) {
+			return -1;
+		}
+		int[] moves = this.moveBuffers[ply];
+		int count = this.serverGame.getPossibleMoves(mover, moves);
+		for (int i = 0; i < count; i++) {
+			int square = PackedMove.square(moves[i]);
+			if ((occupied & (1L << square)) == 0) {
+				continue;
+			}
+			this.serverGame.makeMove(square);
+			this.localMoves[ply] = square;
+			int found = findLocalMoves(playerOne, playerTwo, ply + 1);
+			if (found >= 0) {
+				return found;
+			}
+			this.serverGame.undoMove();
+		}
+		return -1;
+	}
+
+	private void send(byte type, int argument) throws IOException {
+		this.message[0] = type;
+		this.message[1] = (byte) argument;
+		this.out.write(this.message);
+	}
+
+	private byte receive() throws IOException {
+		try {
+			this.in.readFully(this.message);
+		} catch (EOFException e) {
+			throw new IOException("The server closed the connection", e);
+		}
+		return this.message[0];
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: java reversi.MatchClient <botClass> [games] [host] [port] [moveMillis]");
+			System.exit(1);
+		}
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		String host = args.length > 2 ? args[2] : "localhost";
+		int port = args.length > 3 ? Integer.parseInt(args[3]) : MatchProtocol.DEFAULT_PORT;
+		long moveMillis = args.length > 4 ? Long.parseLong(args[4]) : 100;
+		Function<ReversiGame, ReversiBot> botFactory = SelfPlay.botFactory(args[0], moveMillis);
+		InetSocketAddress server = new InetSocketAddress(host, port);
+
+		for (int i = 0; i < games; i++) {
+			ReversiGame game = new ReversiGame();
+			game.setListener(GameListener.NONE);
+			MatchClient remote = new MatchClient(game, MatchProtocol.ANY_COLOUR, server);
+			try {
+				int remotePlayer = remote.awaitStart();
+				ReversiBot local = botFactory.apply(game);
+				System.out.println("Game " + (i + 1) + ": playing " + ReversiGame.opponentPlayer(remotePlayer));
+				while (!game.isGameOver()) {
+					ReversiBot bot = game.getCurPlayer() == remotePlayer ? remote : local;
+					MoveScore move = bot.getNextMove();
+					if (move == null || !game.makeMove(move.getRow(), move.getColumn())) {
+						break;
+					}
+				}
+			} finally {
+				// Sends the last move if it was ours
+				remote.close();
+			}
+			int winner = game.isGameOver() ? game.getWinner() : remote.getWinner();
+			String result = winner < 0 ? "abandoned" : winner == 0 ? "tie" : "player " + winner + " wins";
+			System.out.println("Game " + (i + 1) + ": " + result + ", "
+					+ game.getDiskCount(ReversiGame.PLAYER_ONE) + "-" + game.getDiskCount(ReversiGame.PLAYER_TWO));
+		}
+	}
+}
@@ -0,0 +1,326 @@
+package reversi;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures a {@link MatchServer} with many concurrent games between random players. Every connection joins a game,
+ * plays random legal moves as soon as it's its turn and joins again when the game ends, until the time is up.
+ * All the connections are driven by one thread with non-blocking sockets.
+ *
+ * Usage: {@code java reversi.MatchLoadGenerator [connections=2000] [seconds=30] [host] [port=7777]}. Without a host,
+ * the load runs against a server started in this process.
+ */
+public class MatchLoadGenerator {
+	private static final int BUFFER_SIZE = 256;
+	private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+	/**
+	 * The totals of a run.
+	 */
+	public static final class Result {
+		private long games;
+		private long moves;
+		private long errors;
+		private int peakGames;
+		private long nanos;
+		/** From sending a move to receiving the opponent's reply through the server. */
+		private final LatencyHistogram turnLatencies = new LatencyHistogram();
+
+		/**
+		 * @return the number of games played to the end
+		 */
+		public long getGames() {
+			return this.games;
+		}
+
+		public long getMoves() {
+			return this.moves;
+		}
+
+		/**
+		 * @return the number of connections that failed or received an unexpected message
+		 */
+		public long getErrors() {
+			return this.errors;
+		}
+
+		/**
+		 * @return the largest number of games in progress at the same time
+		 */
+		public int getPeakGames() {
+			return this.peakGames;
+		}
+
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		public LatencyHistogram getTurnLatencies() {
+			return this.turnLatencies;
+		}
+	}
+
+	/**
+	 * A connection playing random moves, with its own copy of the game.
+	 */
+	private static final class Player {
+		final SocketChannel channel;
+		final SelectionKey key;
+		final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+		ReversiGame game;
+		int colour;
+		long sentNanos;
+
+		Player(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+		}
+	}
+
+	private final Selector selector;
+	private final SplittableRandom random;
+	private final int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+	private final Result result = new Result();
+	private final long deadline;
+	private int openPlayers;
+	private int playingPlayers;
+
+	private MatchLoadGenerator(long durationMillis, long seed) throws IOException {
+		this.selector = Selector.open();
+		this.random = new SplittableRandom(seed);
+		this.deadline = System.nanoTime() + durationMillis * 1_000_000;
+	}
+
+	/**
+	 * Plays random games on the server until the time is up, then waits for the games in progress to end.
+	 * @param connections the number of connections, which play half as many games at a time
+	 */
+	public static Result run(InetSocketAddress server, int connections, long durationMillis, long seed)
+			throws IOException {
+		MatchLoadGenerator generator = new MatchLoadGenerator(durationMillis, seed);
+		try {
+			return generator.run(server, connections);
+		} finally {
+			for (SelectionKey key : generator.selector.keys()) {
+				key.channel().close();
+			}
+			generator.selector.close();
+		}
+	}
+
+	private Result run(InetSocketAddress server, int connections) throws IOException {
+		long start = System.nanoTime();
+		for (int i = 0; i < connections; i++) {
+			SocketChannel channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			channel.connect(server);
+			SelectionKey key = channel.register(this.selector, SelectionKey.OP_CONNECT);
+			key.attach(new Player(channel, key));
+			this.openPlayers++;
+		}
+		List<Player> waiting = new ArrayList<>();
+		while (this.openPlayers > 0) {
+			this.selector.select(SELECT_TIMEOUT_MILLIS);
+			Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				if (!key.isValid()) {
+					continue;
+				}
+				Player player = (Player) key.attachment();
+				if (key.isConnectable()) {
+					connected(player);
+				} else {
+					if (key.isReadable()) {
+						read(player);
+					}
+					if (key.isValid() && key.isWritable()) {
+						flush(player);
+					}
+				}
+			}
+			if (System.nanoTime() >= this.deadline) {
+				// Players still waiting for an opponent won't get one once the others stop joining
+				waiting.clear();
+				for (SelectionKey key : this.selector.keys()) {
+					Player player = (Player) key.attachment();
+					if (player.game == null) {
+						waiting.add(player);
+					}
+				}
+				for (Player player : waiting) {
+					close(player);
+				}
+			}
+		}
+		this.result.nanos = System.nanoTime() - start;
+		return this.result;
+	}
+
+	private void connected(Player player) {
+		try {
+			player.channel.finishConnect();
+		} catch (IOException e) {
+			fail(player);
+			return;
+		}
+		player.key.interestOps(SelectionKey.OP_READ);
+		send(player, MatchProtocol.JOIN, MatchProtocol.ANY_COLOUR);
+	}
+
+	private void read(Player player) {
+		int read;
+		try {
+			read = player.channel.read(player.in);
+		} catch (IOException e) {
+			read = -1;
+		}
+		if (read < 0) {
+			fail(player);
+			return;
+		}
+		ByteBuffer in = player.in.flip();
+		while (in.remaining() >= MatchProtocol.MESSAGE_SIZE && player.key.isValid()) {
+			handle(player, in.get(), in.get() & 0xFF);
+		}
+		in.compact();
+	}
+
+	private void handle(Player player, byte type, int argument) {
+		if (type == MatchProtocol.START && player.game == null) {
+			player.game = new ReversiGame();
+			player.game.setListener(GameListener.NONE);
+			player.colour = argument;
+			player.sentNanos = 0;
+			this.playingPlayers++;
+			this.result.peakGames = Math.max(this.result.peakGames, this.playingPlayers / 2);
+			play(player);
+		} else if (type == MatchProtocol.MOVED && player.game != null && argument < Bitboard.SQUARES
+				&& player.game.makeMove(argument)) {
+			if (player.sentNanos != 0) {
+				this.result.turnLatencies.record(System.nanoTime() - player.sentNanos);
+				player.sentNanos = 0;
+			}
+			play(player);
+		} else if (type == MatchProtocol.END && player.game != null) {
+			if (player.colour == ReversiGame.PLAYER_ONE && player.game.isGameOver()) {
+				this.result.games++;
+			}
+			player.game = null;
+			this.playingPlayers--;
+			if (System.nanoTime() < this.deadline) {
+				send(player, MatchProtocol.JOIN, MatchProtocol.ANY_COLOUR);
+			} else {
+				close(player);
+			}
+		} else {
+			fail(player);
+		}
+	}
+
+	/**
+	 * Plays random moves while it's the player's turn.
+	 */
+	private void play(Player player) {
+		ReversiGame game = player.game;
+		while (game.getCurPlayer() == player.colour && !game.isGameOver() && player.key.isValid()) {
+			int count = game.getPossibleMoves(player.colour, this.moves);
+			int square = PackedMove.square(this.moves[this.random.nextInt(count)]);
+			game.makeMove(square);
+			this.result.moves++;
+			player.sentNanos = System.nanoTime();
+			send(player, MatchProtocol.MOVE, square);
+		}
+	}
+
+	private void send(Player player, byte type, int argument) {
+		if (!player.key.isValid()) {
+			return;
+		}
+		if (player.out.remaining() < MatchProtocol.MESSAGE_SIZE) {
+			fail(player);
+			return;
+		}
+		player.out.put(type).put((byte) argument);
+		flush(player);
+	}
+
+	private void flush(Player player) {
+		ByteBuffer out = player.out.flip();
+		try {
+			player.channel.write(out);
+		} catch (IOException e) {
+			out.clear();
+			fail(player);
+			return;
+		}
+		out.compact();
+		player.key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+	}
+
+	private void fail(Player player) {
+		this.result.errors++;
+		close(player);
+	}
+
+	private void close(Player player) {
+		if (!player.key.isValid()) {
+			return;
+		}
+		if (player.game != null) {
+			this.playingPlayers--;
+		}
+		player.key.cancel();
+		try {
+			player.channel.close();
+		} catch (IOException e) {
+			// Nothing left to clean up
+		}
+		this.openPlayers--;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long seconds = args.length > 1 ? Long.parseLong(args[1]) : 30;
+		MatchServer embedded = null;
+		InetSocketAddress server;
+		if (args.length > 2) {
+			int port = args.length > 3 ? Integer.parseInt(args[3]) : MatchProtocol.DEFAULT_PORT;
+			server = new InetSocketAddress(args[2], port);
+		} else {
+			embedded = new MatchServer(0);
+			embedded.start();
+			server = new InetSocketAddress("localhost", embedded.getPort());
+		}
+		System.out.println("Playing random games on " + connections + " connections to " + server + " for " + seconds
+				+ " seconds");
+		try {
+			Result result = run(server, connections, seconds * 1000, System.nanoTime());
+			double elapsed = result.getNanos() / 1e9;
+			LatencyHistogram latencies = result.getTurnLatencies();
+			System.out.printf("%d games, %d moves in %.1f seconds (%.0f games/sec, %.0f moves/sec), %d games at once, "
+					+ "%d errors%n", result.getGames(), result.getMoves(), elapsed, result.getGames() / elapsed,
+					result.getMoves() / elapsed, result.getPeakGames(), result.getErrors());
+			System.out.printf("Turn latency: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+					latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(99) / 1e6,
+					latencies.getMax() / 1e6);
+		} finally {
+			if (embedded != null) {
+				embedded.close();
+			}
+		}
+	}
+}
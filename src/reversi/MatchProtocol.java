@@ -0,0 +1,34 @@
+package reversi;
+
+/**
+ * The binary protocol between {@link MatchServer} and its clients. Every message is two bytes: a type and an
+ * argument, so there is no framing beyond reading pairs of bytes.
+ *
+ * A client sends {@link #JOIN} with the colour it wants to play, and the server answers {@link #START} with the colour
+ * it got once an opponent is found. The players then send {@link #MOVE} in turn, and each move is forwarded to the
+ * opponent as {@link #MOVED}. Passes aren't sent: both sides know when a player has no move. The server ends the game
+ * with {@link #END} to both players, after which a client may join again.
+ */
+final class MatchProtocol {
+	static final int DEFAULT_PORT = 7777;
+	static final int MESSAGE_SIZE = 2;
+
+	/** Client to server, argument: the colour to play, or {@link #ANY_COLOUR}. */
+	static final byte JOIN = 1;
+	/** Server to client, argument: the colour the client plays. */
+	static final byte START = 2;
+	/** Client to server, argument: the square ({@code row * 8 + col}) of the client's move. */
+	static final byte MOVE = 3;
+	/** Server to client, argument: the square of the opponent's move. */
+	static final byte MOVED = 4;
+	/**
+	 * Server to client, argument: the winner, or 0 for a tie. The game also ends when a player sends an illegal move
+	 * or disconnects, and the opponent wins.
+	 */
+	static final byte END = 5;
+
+	static final byte ANY_COLOUR = 0;
+
+	private MatchProtocol() {
+	}
+}
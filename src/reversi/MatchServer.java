@@ -0,0 +1,408 @@
+package reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Referees games between remote players over TCP, so bots can run in their own processes (see {@link MatchClient}).
+ * Clients are paired in the order they join and every move is checked on the server's own {@link ReversiGame}.
+ * A player that sends an illegal move or disconnects loses the game.
+ *
+ * All the connections and games are served by one thread with non-blocking sockets, so thousands of games cost
+ * only their sockets and boards. Messages are described in {@link MatchProtocol}; {@link MatchLoadGenerator}
+ * measures the throughput.
+ *
+ * Usage: {@code java reversi.MatchServer [port=7777]}. The server prints its statistics every 10 seconds.
+ */
+public class MatchServer implements Closeable {
+	private static final int BACKLOG = 4096;
+	private static final int BUFFER_SIZE = 256;
+	private static final long STATS_INTERVAL_MILLIS = 10_000;
+	/** How long to stop accepting after accept() failed, typically for lack of file descriptors. */
+	private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+	private final ServerSocketChannel serverChannel;
+	private final Selector selector;
+	private final SelectionKey acceptKey;
+	/** When to accept again while the accept key has no interest, only used by the server thread. */
+	private long acceptResumeNanos;
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	// Connections waiting for an opponent by requested colour, only used by the server thread
+	private final ArrayDeque<Connection> waitingForAny = new ArrayDeque<>();
+	private final ArrayDeque<Connection> waitingForPlayerOne = new ArrayDeque<>();
+	private final ArrayDeque<Connection> waitingForPlayerTwo = new ArrayDeque<>();
+
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicLong gamesStarted = new AtomicLong();
+	private final AtomicLong gamesFinished = new AtomicLong();
+	private final AtomicLong movesPlayed = new AtomicLong();
+	private final AtomicLong acceptFailures = new AtomicLong();
+
+	/**
+	 * A client socket and its game, if it's playing one.
+	 */
+	private static final class Connection {
+		final SocketChannel channel;
+		final SelectionKey key;
+		final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		/** Messages that couldn't be written yet, in write mode. */
+		final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+		/** The colour asked for in the last JOIN while waiting for an opponent, -1 otherwise. */
+		int requestedColour = -1;
+		Game game;
+		int colour;
+		boolean closed;
+
+		Connection(SocketChannel channel, SelectionKey key) {
+			this.channel = channel;
+			this.key = key;
+		}
+	}
+
+	private static final class Game {
+		final ReversiGame game = new ReversiGame();
+		/** The connection of each player, indexed by colour. */
+		final Connection[] players = new Connection[3];
+
+		Game() {
+			this.game.setListener(GameListener.NONE);
+		}
+	}
+
+	/**
+	 * Opens the server socket. Connections are accepted after {@link #start()}.
+	 * @param port the port to listen on, or 0 for any free port
+	 */
+	public MatchServer(int port) throws IOException {
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+		this.serverChannel.configureBlocking(false);
+		this.acceptKey = this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+		this.thread = new Thread(this::run, "match-server");
+	}
+
+	/**
+	 * Starts serving on a new thread.
+	 */
+	public void start() {
+		this.thread.start();
+	}
+
+	public int getPort() {
+		return this.serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * @return the number of open client connections
+	 */
+	public int getConnections() {
+		return this.connections.get();
+	}
+
+	public long getGamesStarted() {
+		return this.gamesStarted.get();
+	}
+
+	/**
+	 * @return the number of games that ended, including forfeits
+	 */
+	public long getGamesFinished() {
+		return this.gamesFinished.get();
+	}
+
+	public long getMovesPlayed() {
+		return this.movesPlayed.get();
+	}
+
+	/**
+	 * @return the number of times accepting or setting up a connection failed
+	 */
+	public long getAcceptFailures() {
+		return this.acceptFailures.get();
+	}
+
+	/**
+	 * Stops the server and closes all the connections.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.selector.wakeup();
+		if (this.thread.isAlive() && Thread.currentThread() != this.thread) {
+			try {
+				this.thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (SelectionKey key : this.selector.keys()) {
+			key.channel().close();
+		}
+		this.selector.close();
+	}
+
+	private void run() {
+		while (this.running) {
+			try {
+				this.selector.select(acceptPauseMillis());
+			} catch (IOException e) {
+				// The games are still there, so keep serving them until close()
+				System.err.println("Failed to select the ready connections: " + e.getMessage());
+				continue;
+			}
+			Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				if (!key.isValid()) {
+					continue;
+				}
+				if (key.isAcceptable()) {
+					accept();
+					continue;
+				}
+				Connection connection = (Connection) key.attachment();
+				if (key.isReadable()) {
+					read(connection);
+				}
+				if (!connection.closed && key.isWritable()) {
+					flush(connection);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Accepts again once the pause after a failed accept() is over.
+	 * @return the time left to wait before accepting, or 0 if accepting
+	 */
+	private long acceptPauseMillis() {
+		if (this.acceptKey.interestOps() != 0) {
+			return 0;
+		}
+		long pauseNanos = this.acceptResumeNanos - System.nanoTime();
+		if (pauseNanos <= 0) {
+			this.acceptKey.interestOps(SelectionKey.OP_ACCEPT);
+			return 0;
+		}
+		return Math.max(1, pauseNanos / 1_000_000);
+	}
+
+	private void accept() {
+		while (true) {
+			SocketChannel channel;
+			try {
+				channel = this.serverChannel.accept();
+			} catch (IOException e) {
+				// Typically out of file descriptors. Retrying at once would fail again, so pause accepting while the
+				// games go on, and leave the new connections in the backlog.
+				this.acceptFailures.incrementAndGet();
+				this.acceptKey.interestOps(0);
+				this.acceptResumeNanos = System.nanoTime() + ACCEPT_BACKOFF_MILLIS * 1_000_000;
+				return;
+			}
+			if (channel == null) {
+				return;
+			}
+			try {
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+				key.attach(new Connection(channel, key));
+			} catch (IOException e) {
+				// The client went away before its connection was set up
+				this.acceptFailures.incrementAndGet();
+				try {
+					channel.close();
+				} catch (IOException closeFailure) {
+					// Nothing left to clean up
+				}
+				continue;
+			}
+			this.connections.incrementAndGet();
+		}
+	}
+
+	private void read(Connection connection) {
+		int read;
+		try {
+			read = connection.channel.read(connection.in);
+		} catch (IOException e) {
+			read = -1;
+		}
+		if (read < 0) {
+			disconnect(connection);
+			return;
+		}
+		ByteBuffer in = connection.in.flip();
+		while (in.remaining() >= MatchProtocol.MESSAGE_SIZE && !connection.closed) {
+			handle(connection, in.get(), in.get() & 0xFF);
+		}
+		in.compact();
+	}
+
+	private void handle(Connection connection, byte type, int argument) {
+		if (type == MatchProtocol.JOIN && connection.game == null && connection.requestedColour < 0
+				&& (argument == MatchProtocol.ANY_COLOUR || argument == ReversiGame.PLAYER_ONE
+						|| argument == ReversiGame.PLAYER_TWO)) {
+			join(connection, argument);
+		} else if (type == MatchProtocol.MOVE && connection.game != null) {
+			move(connection, argument);
+		} else {
+			disconnect(connection);
+		}
+	}
+
+	private void join(Connection connection, int colour) {
+		Connection opponent;
+		if (colour == MatchProtocol.ANY_COLOUR) {
+			opponent = this.waitingForPlayerOne.poll();
+			if (opponent == null) {
+				opponent = this.waitingForPlayerTwo.poll();
+			}
+		} else {
+			opponent = waiting(ReversiGame.opponentPlayer(colour)).poll();
+		}
+		if (opponent == null) {
+			opponent = this.waitingForAny.poll();
+		}
+		if (opponent == null) {
+			connection.requestedColour = colour;
+			waiting(colour).add(connection);
+			return;
+		}
+		int opponentColour = opponent.requestedColour;
+		opponent.requestedColour = -1;
+		if (opponentColour == MatchProtocol.ANY_COLOUR) {
+			// The connection that waited moves first unless the new one asked for it
+			opponentColour = colour == ReversiGame.PLAYER_ONE ? ReversiGame.PLAYER_TWO : ReversiGame.PLAYER_ONE;
+		}
+		Game game = new Game();
+		seat(game, opponent, opponentColour);
+		seat(game, connection, ReversiGame.opponentPlayer(opponentColour));
+		this.gamesStarted.incrementAndGet();
+	}
+
+	private ArrayDeque<Connection> waiting(int colour) {
+		if (colour == ReversiGame.PLAYER_ONE) {
+			return this.waitingForPlayerOne;
+		}
+		return colour == ReversiGame.PLAYER_TWO ? this.waitingForPlayerTwo : this.waitingForAny;
+	}
+
+	private void seat(Game game, Connection connection, int colour) {
+		game.players[colour] = connection;
+		connection.game = game;
+		connection.colour = colour;
+		send(connection, MatchProtocol.START, colour);
+	}
+
+	private void move(Connection connection, int square) {
+		Game game = connection.game;
+		ReversiGame board = game.game;
+		int opponent = ReversiGame.opponentPlayer(connection.colour);
+		if (board.getCurPlayer() != connection.colour || square >= Bitboard.SQUARES || !board.makeMove(square)) {
+			finish(game, opponent);
+			return;
+		}
+		this.movesPlayed.incrementAndGet();
+		send(game.players[opponent], MatchProtocol.MOVED, square);
+		if (connection.game == null) {
+			// The opponent was disconnected by the send, which already finished the game
+			return;
+		}
+		if (board.isGameOver()) {
+			finish(game, board.getWinner());
+		}
+	}
+
+	private void finish(Game game, int winner) {
+		for (int colour = ReversiGame.PLAYER_ONE; colour <= ReversiGame.PLAYER_TWO; colour++) {
+			Connection connection = game.players[colour];
+			connection.game = null;
+			send(connection, MatchProtocol.END, winner);
+		}
+		this.gamesFinished.incrementAndGet();
+	}
+
+	private void send(Connection connection, byte type, int argument) {
+		if (connection.closed) {
+			return;
+		}
+		if (connection.out.remaining() < MatchProtocol.MESSAGE_SIZE) {
+			// The client stopped reading
+			disconnect(connection);
+			return;
+		}
+		connection.out.put(type).put((byte) argument);
+		flush(connection);
+	}
+
+	private void flush(Connection connection) {
+		ByteBuffer out = connection.out.flip();
+		try {
+			connection.channel.write(out);
+		} catch (IOException e) {
+			out.clear();
+			disconnect(connection);
+			return;
+		}
+		out.compact();
+		int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+		if (connection.key.interestOps() != ops) {
+			connection.key.interestOps(ops);
+		}
+	}
+
+	private void disconnect(Connection connection) {
+		if (connection.closed) {
+			return;
+		}
+		connection.closed = true;
+		if (connection.requestedColour >= 0) {
+			waiting(connection.requestedColour).remove(connection);
+		}
+		if (connection.game != null) {
+			finish(connection.game, ReversiGame.opponentPlayer(connection.colour));
+		}
+		connection.key.cancel();
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			// Nothing left to clean up
+		}
+		this.connections.decrementAndGet();
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : MatchProtocol.DEFAULT_PORT;
+		try (MatchServer server = new MatchServer(port)) {
+			server.start();
+			System.out.println("Match server listening on port " + server.getPort());
+			long lastMoves = 0;
+			while (true) {
+				Thread.sleep(STATS_INTERVAL_MILLIS);
+				long moves = server.getMovesPlayed();
+				System.out.printf("%d connections, %d games playing, %d games finished, %.0f moves/sec, %d failed accepts%n",
+						server.getConnections(), server.getGamesStarted() - server.getGamesFinished(),
+						server.getGamesFinished(), (moves - lastMoves) * 1000.0 / STATS_INTERVAL_MILLIS,
+						server.getAcceptFailures());
+				lastMoves = moves;
+			}
+		}
+	}
+}
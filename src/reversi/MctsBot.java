@@ -0,0 +1,352 @@
+package reversi;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Monte Carlo tree search bot: UCT selection, random playouts, and tree parallelism across cores, under a hard
+ * time budget per move.
+ *
+ * All the threads grow one shared tree. A thread adds a virtual loss to every node it passes on the way down (the
+ * visit is counted before the result is known), so threads that arrive at the same node at the same time spread over
+ * different children. Results are added with atomic updates, and a node is expanded by whichever thread claims it
+ * first. The calling thread searches too; the other threads are the bot's own, so a busy shared pool can't delay
+ * them, and a helper thread that hasn't started by the time the search is over is skipped rather than waited for.
+ * Bots search on a single thread unless given more, since tournaments already run one game per core.
+ *
+ * The tree lives in a node pool allocated once per bot: the nodes are indexes into parallel arrays, and the pool is
+ * reused from move to move, so searching creates no garbage. Playouts work on bitboards with a per-thread
+ * {@link XorShiftRandom} and allocate nothing either. When the pool is full the tree stops growing and playouts run from its
+ * leaves.
+ */
+public class MctsBot implements ReversiBot {
+	public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+	public static final int DEFAULT_POOL_NODES = 1 << 20;
+	/** The exploration constant of UCT. */
+	static final double EXPLORATION = 1.4;
+	/** A leaf is expanded on this visit, so single playouts don't fill the pool with children. */
+	private static final int EXPAND_VISITS = 2;
+
+	/** {@link #firstChild} of a node whose children haven't been added yet. */
+	private static final int UNEXPANDED = -1;
+	/** {@link #firstChild} of a node being expanded by another thread. */
+	private static final int EXPANDING = -2;
+	/** {@link #firstChild} of a node that is never expanded: the game is over or the pool was full. */
+	private static final int LEAF = -3;
+	private static final int ROOT = 0;
+	/** Added to {@link #stats} for a visit: visits are the high 32 bits, points the low 32 bits. */
+	private static final long VISIT = 1L << 32;
+	/** How long idle helper threads are kept between moves. */
+	private static final long HELPER_KEEP_ALIVE_MILLIS = 1000;
+
+	private final ReversiGame game;
+	private final long timeBudgetNanos;
+	private final Worker[] workers;
+	/** Runs the helper workers, null with a single thread. */
+	private final ThreadPoolExecutor helpers;
+	/** Incremented by every call to {@link #getNextMove()}, see {@link Worker#claimed}. */
+	private int searchId;
+
+	// The node pool
+	private final int capacity;
+	private final AtomicLongArray stats;
+	private final AtomicIntegerArray firstChild;
+	private final byte[] childCount;
+	private final byte[] square;
+	/** The player who played the move leading to each node, whose point of view the node's points are from. */
+	private final byte[] mover;
+	private final AtomicInteger nextNode = new AtomicInteger();
+
+	private long deadline;
+
+	public MctsBot(ReversiGame game) {
+		this(game, DEFAULT_TIME_BUDGET_MILLIS);
+	}
+
+	/**
+	 * A bot searching on the calling thread only.
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 */
+	public MctsBot(ReversiGame game, long timeBudgetMillis) {
+		this(game, timeBudgetMillis, 1, DEFAULT_POOL_NODES);
+	}
+
+	/**
+	 * @param timeBudgetMillis the wall-clock time each call to {@link #getNextMove()} may take
+	 * @param threads the number of threads searching the tree, including the calling thread
+	 * @param poolNodes the size of the node pool
+	 */
+	public MctsBot(ReversiGame game, long timeBudgetMillis, int threads, int poolNodes) {
+		this.game = game;
+		this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+		this.capacity = poolNodes;
+		this.stats = new AtomicLongArray(poolNodes);
+		this.firstChild = new AtomicIntegerArray(poolNodes);
+		this.childCount = new byte[poolNodes];
+		this.square = new byte[poolNodes];
+		this.mover = new byte[poolNodes];
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			this.workers[i] = new Worker(System.nanoTime() ^ (i + 1) * 0x9E3779B97F4A7C15L);
+		}
+		if (threads > 1) {
+			this.helpers = new ThreadPoolExecutor(threads - 1, threads - 1, HELPER_KEEP_ALIVE_MILLIS,
+					TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "mcts");
+						thread.setDaemon(true);
+						return thread;
+					});
+			// Bots are made per game, so threads of finished games mustn't linger
+			this.helpers.allowCoreThreadTimeOut(true);
+		} else {
+			this.helpers = null;
+		}
+	}
+
+	/**
+	 * @return the move played in the most playouts, with its percentage of points (2 per win, 1 per tie) as its
+	 *         score, or null if the current player has no moves
+	 */
+	public MoveScore getNextMove() {
+		this.deadline = System.nanoTime() + this.timeBudgetNanos;
+		this.nextNode.set(ROOT + 1);
+		this.stats.set(ROOT, 0);
+		this.firstChild.set(ROOT, UNEXPANDED);
+
+		ReversiGame rootGame = new ReversiGame(this.game);
+		int first = expand(ROOT, rootGame);
+		if (first < 0) {
+			return null;
+		}
+		int count = this.childCount[ROOT];
+		if (count == 1) {
+			return new MoveScore(Bitboard.row(this.square[first]), Bitboard.col(this.square[first]), 0);
+		}
+
+		int id = ++this.searchId;
+		Future<?>[] helpers = new Future<?>[this.workers.length];
+		for (int i = 1; i < this.workers.length; i++) {
+			Worker worker = this.workers[i];
+			worker.setGame(new ReversiGame(rootGame));
+			helpers[i] = this.helpers.submit(() -> {
+				if (worker.claim(id)) {
+					worker.search();
+				}
+			});
+		}
+		this.workers[0].setGame(rootGame);
+		this.workers[0].search();
+		for (int i = 1; i < this.workers.length; i++) {
+			if (!this.workers[i].claim(id)) {
+				// Started in time, so it stops at the deadline too
+				awaitHelper(helpers[i]);
+			}
+		}
+		if (Metrics.ENABLED) {
+			Metrics.add(Metrics.Counter.PLAYOUTS, getPlayouts());
+		}
+
+		int best = first;
+		for (int child = first + 1; child < first + count; child++) {
+			if (visits(this.stats.get(child)) > visits(this.stats.get(best))) {
+				best = child;
+			}
+		}
+		long bestStats = this.stats.get(best);
+		int score = visits(bestStats) == 0 ? 0 : (int) (50 * points(bestStats) / visits(bestStats));
+		return new MoveScore(Bitboard.row(this.square[best]), Bitboard.col(this.square[best]), score);
+	}
+
+	/**
+	 * Waits for a helper that is searching, even if interrupted, since it must leave the tree before the next move.
+	 */
+	private static void awaitHelper(Future<?> helper) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				helper.get();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the number of playouts of the last call to {@link #getNextMove()}
+	 */
+	public long getPlayouts() {
+		return visits(this.stats.get(ROOT));
+	}
+
+	/**
+	 * @return the number of tree nodes used by the last call to {@link #getNextMove()}
+	 */
+	public int getTreeSize() {
+		return Math.min(this.nextNode.get(), this.capacity);
+	}
+
+	private static long visits(long stats) {
+		return stats >>> 32;
+	}
+
+	private static long points(long stats) {
+		return stats & 0xFFFF_FFFFL;
+	}
+
+	/**
+	 * Adds the children of the node, unless another thread is already doing it.
+	 * @param game the node's position
+	 * @return the first child, or a negative value if there are no children to descend to
+	 */
+	private int expand(int node, ReversiGame game) {
+		if (!this.firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+			return -1;
+		}
+		int player = game.getCurPlayer();
+		long moves = game.getMoveMask(player);
+		int count = Long.bitCount(moves);
+		int first = count == 0 ? -1 : this.nextNode.getAndAdd(count);
+		if (count == 0 || first + count > this.capacity) {
+			this.firstChild.set(node, LEAF);
+			return -1;
+		}
+		for (int child = first; moves != 0; child++, moves &= moves - 1) {
+			this.square[child] = (byte) Long.numberOfTrailingZeros(moves);
+			this.mover[child] = (byte) player;
+			this.stats.set(child, 0);
+			this.firstChild.set(child, UNEXPANDED);
+		}
+		this.childCount[node] = (byte) count;
+		// Publishes the children to the other threads
+		this.firstChild.set(node, first);
+		return first;
+	}
+
+	/**
+	 * @return the child with the highest UCT value
+	 */
+	private int select(int node, int first) {
+		double logVisits = Math.log(Math.max(1, visits(this.stats.get(node))));
+		int best = first;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = first, end = first + this.childCount[node]; child < end; child++) {
+			long childStats = this.stats.get(child);
+			long visits = visits(childStats);
+			if (visits == 0) {
+				return child;
+			}
+			double value = points(childStats) / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * The state of one search thread.
+	 */
+	private class Worker {
+		private final int[] path = new int[Bitboard.SQUARES + 1];
+		private final XorShiftRandom random;
+		/**
+		 * The last search this worker was claimed for, either by its helper task (which then searches) or by the
+		 * calling thread once its own search is over (so a helper starting late doesn't search at all).
+		 */
+		private final AtomicInteger claimed = new AtomicInteger();
+		private ReversiGame game;
+
+		Worker(long seed) {
+			this.random = new XorShiftRandom(seed);
+		}
+
+		/**
+		 * @return true if the caller claimed the worker for the search, false if it was already claimed
+		 */
+		boolean claim(int searchId) {
+			return this.claimed.compareAndSet(searchId - 1, searchId);
+		}
+
+		void setGame(ReversiGame game) {
+			this.game = game;
+		}
+
+		/**
+		 * Runs playouts from the root until the time is up.
+		 */
+		void search() {
+			ReversiGame game = this.game;
+			while (System.nanoTime() - MctsBot.this.deadline < 0) {
+				int node = ROOT;
+				int depth = 0;
+				this.path[depth++] = ROOT;
+				long nodeStats = MctsBot.this.stats.getAndAdd(ROOT, VISIT);
+				while (true) {
+					int first = MctsBot.this.firstChild.get(node);
+					if (first == UNEXPANDED && (node == ROOT || visits(nodeStats) + 1 >= EXPAND_VISITS)) {
+						first = expand(node, game);
+					}
+					if (first < 0) {
+						break;
+					}
+					node = select(node, first);
+					// Virtual loss: the visit counts before its points are known
+					nodeStats = MctsBot.this.stats.getAndAdd(node, VISIT);
+					game.makeMove(MctsBot.this.square[node]);
+					this.path[depth++] = node;
+				}
+
+				int winner = playout(game);
+				for (int i = depth - 1; i >= 1; i--) {
+					int pathNode = this.path[i];
+					int moverPlayer = MctsBot.this.mover[pathNode];
+					MctsBot.this.stats.getAndAdd(pathNode, winner == moverPlayer ? 2 : winner == 0 ? 1 : 0);
+					game.undoMove();
+				}
+				// The root's points aren't used
+			}
+		}
+
+		/**
+		 * Plays random moves from the game's position to the end, without changing the game.
+		 * @return the winner, or 0 for a tie
+		 */
+		private int playout(ReversiGame game) {
+			int player = game.getCurPlayer();
+			long own = game.getDisks(player);
+			long opp = game.getDisks(ReversiGame.opponentPlayer(player));
+			while (true) {
+				long moves = Bitboard.moves(own, opp);
+				if (moves == 0) {
+					if (Bitboard.moves(opp, own) == 0) {
+						break;
+					}
+				} else {
+					int square = this.random.nextSquare(moves);
+					long flips = Bitboard.flips(own, opp, square);
+					own |= flips | 1L << square;
+					opp &= ~flips;
+				}
+				long swap = own;
+				own = opp;
+				opp = swap;
+				player = ReversiGame.opponentPlayer(player);
+			}
+			int diff = Long.bitCount(own) - Long.bitCount(opp);
+			return diff == 0 ? 0 : diff > 0 ? player : ReversiGame.opponentPlayer(player);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package reversi;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Engine and bot instrumentation: counters of the hot operations and a latency histogram of each bot's moves.
+ *
+ * Instrumentation is off unless the JVM runs with {@code -Dreversi.metrics=true}. The call sites check
+ * {@link #ENABLED}, a constant, so when it's off the JIT compiles the instrumentation away. When it's on, counters are
+ * {@link LongAdder}s and each thread records latencies into histograms of its own, so recording never locks.
+ *
+ * {@link #startDumping(Path, long)} writes a snapshot every interval: a JSON file is replaced with the latest
+ * snapshot, a file ending in {@code .csv} gets one line per value per snapshot appended. The tournament starts it
+ * from {@code -Dreversi.metrics.file=<file>} and {@code -Dreversi.metrics.intervalMillis=<millis>} (10 seconds by
+ * default).
+ */
+public final class Metrics {
+	public static final boolean ENABLED = Boolean.getBoolean("reversi.metrics");
+	public static final long DEFAULT_DUMP_INTERVAL_MILLIS = 10_000;
+
+	public enum Counter {
+		/** Legal move masks generated, see {@link Bitboard#moves(long, long)}. */
+		MOVE_GENERATIONS,
+		/** Flip masks computed for a move, see {@link Bitboard#flips(long, long, int)}. */
+		FLIP_COMPUTATIONS,
+		/** Positions visited by searches, including endgame solves. */
+		NODES,
+		/** Random playouts of Monte Carlo searches. */
+		PLAYOUTS,
+		TT_PROBES,
+		TT_HITS,
+	}
+
+	private static final Counter[] COUNTERS = Counter.values();
+	private static final LongAdder[] COUNTS = new LongAdder[COUNTERS.length];
+	/** Every thread's histograms of each bot's move latencies, by bot name. */
+	private static final Map<String, Queue<LatencyHistogram>> LATENCIES = new ConcurrentHashMap<>();
+	private static final ThreadLocal<ThreadLatencies> THREAD_LATENCIES = ThreadLocal.withInitial(ThreadLatencies::new);
+	/** Incremented by {@link #reset()}, so every thread registers new histograms for its next moves. */
+	private static volatile int epoch;
+	private static ScheduledExecutorService dumper;
+
+	static {
+		for (int i = 0; i < COUNTS.length; i++) {
+			COUNTS[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * A thread's histograms of each bot's move latencies, and the {@link #epoch} they are registered in.
+	 */
+	private static final class ThreadLatencies {
+		final Map<String, LatencyHistogram> histograms = new HashMap<>();
+		int epoch;
+	}
+
+	private Metrics() {
+	}
+
+	public static void increment(Counter counter) {
+		COUNTS[counter.ordinal()].increment();
+	}
+
+	public static void add(Counter counter, long amount) {
+		COUNTS[counter.ordinal()].add(amount);
+	}
+
+	public static long get(Counter counter) {
+		return COUNTS[counter.ordinal()].sum();
+	}
+
+	/**
+	 * Records the duration of a bot's move in the calling thread's histogram for the bot.
+	 */
+	public static void recordMove(String bot, long nanos) {
+		ThreadLatencies latencies = THREAD_LATENCIES.get();
+		Map<String, LatencyHistogram> histograms = latencies.histograms;
+		int currentEpoch = epoch;
+		if (latencies.epoch != currentEpoch) {
+			// Reset since this thread last recorded: its histograms aren't registered anymore
+			histograms.clear();
+			latencies.epoch = currentEpoch;
+		}
+		LatencyHistogram histogram = histograms.get(bot);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			histograms.put(bot, histogram);
+			LATENCIES.computeIfAbsent(bot, name -> new ConcurrentLinkedQueue<>()).add(histogram);
+		}
+		histogram.record(nanos);
+	}
+
+	/**
+	 * @return each bot's move latencies, merged over all the threads. Histograms are read while other threads may be
+	 *         recording, so the latest moves may be missing.
+	 */
+	public static Map<String, LatencyHistogram> getMoveLatencies() {
+		Map<String, LatencyHistogram> merged = new TreeMap<>();
+		for (Map.Entry<String, Queue<LatencyHistogram>> entry : LATENCIES.entrySet()) {
+			LatencyHistogram total = new LatencyHistogram();
+			for (LatencyHistogram histogram : entry.getValue()) {
+				total.add(histogram);
+			}
+			merged.put(entry.getKey(), total);
+		}
+		return merged;
+	}
+
+	/**
+	 * Zeroes the counters and forgets the latencies. Every thread starts new histograms with its next move; moves
+	 * recorded while resetting may be lost.
+	 */
+	public static synchronized void reset() {
+		for (LongAdder count : COUNTS) {
+			count.reset();
+		}
+		LATENCIES.clear();
+		epoch++;
+	}
+
+	/**
+	 * @return a snapshot of all the metrics as a JSON object
+	 */
+	public static String toJson() {
+		StringBuilder json = new StringBuilder("{\n  \"timeMillis\": ").append(System.currentTimeMillis());
+		json.append(",\n  \"counters\": {");
+		for (int i = 0; i < COUNTERS.length; i++) {
+			json.append(i == 0 ? "\n" : ",\n").append("    \"").append(COUNTERS[i].name().toLowerCase())
+					.append("\": ").append(get(COUNTERS[i]));
+		}
+		json.append("\n  },\n  \"moveLatencyNanos\": {");
+		boolean first = true;
+		for (Map.Entry<String, LatencyHistogram> entry : getMoveLatencies().entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			json.append(first ? "\n" : ",\n").append("    \"").append(escape(entry.getKey())).append("\": {")
+					.append("\"count\": ").append(histogram.getTotalCount())
+					.append(", \"p50\": ").append(histogram.getValueAtPercentile(50))
+					.append(", \"p99\": ").append(histogram.getValueAtPercentile(99))
+					.append(", \"p999\": ").append(histogram.getValueAtPercentile(99.9))
+					.append(", \"max\": ").append(histogram.getMax()).append('}');
+			first = false;
+		}
+		return json.append(first ? "}\n}\n" : "\n  }\n}\n").toString();
+	}
+
+	/**
+	 * @return a snapshot of all the metrics as CSV lines of time in milliseconds, metric name and value, without a
+	 *         header
+	 */
+	public static String toCsv() {
+		long time = System.currentTimeMillis();
+		StringBuilder csv = new StringBuilder();
+		for (Counter counter : COUNTERS) {
+			csv.append(time).append(',').append(counter.name().toLowerCase()).append(',').append(get(counter)).append('\n');
+		}
+		for (Map.Entry<String, LatencyHistogram> entry : getMoveLatencies().entrySet()) {
+			String prefix = time + ",move_latency_nanos." + entry.getKey().replace(',', '_') + '.';
+			LatencyHistogram histogram = entry.getValue();
+			csv.append(prefix).append("count,").append(histogram.getTotalCount()).append('\n');
+			csv.append(prefix).append("p50,").append(histogram.getValueAtPercentile(50)).append('\n');
+			csv.append(prefix).append("p99,").append(histogram.getValueAtPercentile(99)).append('\n');
+			csv.append(prefix).append("p999,").append(histogram.getValueAtPercentile(99.9)).append('\n');
+			csv.append(prefix).append("max,").append(histogram.getMax()).append('\n');
+		}
+		return csv.toString();
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * Writes a snapshot to the file now.
+	 */
+	public static void dump(Path file) throws IOException {
+		if (file.getFileName().toString().endsWith(".csv")) {
+			Files.write(file, toCsv().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			return;
+		}
+		// Replaced in one step, so readers never see half a snapshot
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, toJson().getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes a snapshot to the file every interval on a daemon thread, until {@link #stopDumping()}.
+	 */
+	public static synchronized void startDumping(Path file, long intervalMillis) {
+		stopDumping();
+		dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		dumper.scheduleAtFixedRate(() -> {
+			try {
+				dump(file);
+			} catch (IOException e) {
+				System.err.println("Failed to write metrics to " + file + ": " + e.getMessage());
+			}
+		}, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public static synchronized void stopDumping() {
+		if (dumper != null) {
+			dumper.shutdownNow();
+			dumper = null;
+		}
+	}
+
+	/**
+	 * Starts dumping to the file given by the {@code reversi.metrics.file} system property, if instrumentation is on.
+	 * @return the file, or null if not dumping
+	 */
+	static Path startDumpingFromProperties() {
+		String file = System.getProperty("reversi.metrics.file");
+		if (!ENABLED || file == null) {
+			return null;
+		}
+		Path path = Paths.get(file);
+		startDumping(path, Long.getLong("reversi.metrics.intervalMillis", DEFAULT_DUMP_INTERVAL_MILLIS));
+		return path;
+	}
+}
@@ -0,0 +1,164 @@
+package reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only opening book: how often each move was played in each position, and how well it did.
+ *
+ * The book is a file of fixed-size records sorted by key, mapped into memory, so looking up a position is a binary
+ * search straight over the file's bytes without reading anything into objects. Positions are stored in canonical
+ * form (see {@link BoardSymmetry}), so all symmetric versions of a position share the same statistics.
+ *
+ * File layout (big endian): the magic number, the format version and the number of records, followed by the
+ * records. Each record is 16 bytes: the key (the canonical position hash with its low 6 bits replaced by the
+ * canonical move square), the number of games the move was played in, and the points the player who played it
+ * scored in those games (2 for a win, 1 for a tie).
+ *
+ * Lookups are thread safe. Build books with {@link OpeningBookBuilder}.
+ */
+public final class OpeningBook implements Closeable {
+	static final int MAGIC = 0x5256424B; // "RVBK"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+	static final int RECORD_BYTES = 16;
+	static final long MOVE_MASK = 0x3F;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int records;
+
+	private OpeningBook(FileChannel channel, MappedByteBuffer buffer, int records) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.records = records;
+	}
+
+	public static OpeningBook open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+				throw new IOException(file + " is not an opening book");
+			}
+			if (buffer.getInt(4) != VERSION) {
+				throw new IOException(file + " has unsupported opening book version " + buffer.getInt(4));
+			}
+			long records = buffer.getLong(8);
+			if (records < 0 || records > (channel.size() - HEADER_BYTES) / RECORD_BYTES) {
+				throw new IOException(file + " is truncated");
+			}
+			return new OpeningBook(channel, buffer, (int) records);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of (position, move) records in the book
+	 */
+	public int size() {
+		return this.records;
+	}
+
+	/**
+	 * @param own disks of the player to move
+	 * @param opp disks of the opponent
+	 * @param minGames the number of games a move must have been played in to be considered
+	 * @return the square of the move with the best score in the book, or -1 if the position isn't in the book
+	 */
+	public int getBestMove(long own, long opp, int minGames) {
+		int symmetry = BoardSymmetry.canonicalSymmetry(own, opp);
+		int record = findBestRecord(own, opp, symmetry, minGames, Bitboard.moves(own, opp));
+		return record < 0 ? -1 : moveSquare(record, symmetry);
+	}
+
+	/**
+	 * @return the book move for the game's current player, with the percentage of points it scored as its score,
+	 *         or null if the position isn't in the book
+	 */
+	public MoveScore getBestMove(ReversiGame game, int minGames) {
+		int player = game.getCurPlayer();
+		long own = game.getDisks(player);
+		long opp = game.getDisks(ReversiGame.opponentPlayer(player));
+		int symmetry = BoardSymmetry.canonicalSymmetry(own, opp);
+		int record = findBestRecord(own, opp, symmetry, minGames, game.getMoveMask(player));
+		if (record < 0) {
+			return null;
+		}
+		int square = moveSquare(record, symmetry);
+		int offset = HEADER_BYTES + record * RECORD_BYTES;
+		int percentage = (int) (50L * this.buffer.getInt(offset + 12) / this.buffer.getInt(offset + 8));
+		return new MoveScore(Bitboard.row(square), Bitboard.col(square), percentage);
+	}
+
+	/**
+	 * Finds the record of the best scoring move of the position. Keys are hashes, so a record can belong to another
+	 * position that collides with this one: moves that aren't legal here are skipped.
+	 * @param symmetry the canonical symmetry of the position
+	 * @param legalMoves the legal moves of the player to move, as a mask
+	 * @return the index of the record, or -1 if there is no legal book move
+	 */
+	private int findBestRecord(long own, long opp, int symmetry, int minGames, long legalMoves) {
+		long hash = Zobrist.hash(BoardSymmetry.apply(symmetry, own), BoardSymmetry.apply(symmetry, opp),
+				ReversiGame.PLAYER_ONE);
+		long firstKey = hash & ~MOVE_MASK;
+		int bestRecord = -1;
+		long bestPoints = 0;
+		long bestGames = 1;
+		for (int i = lowerBound(firstKey); i < this.records; i++) {
+			int offset = HEADER_BYTES + i * RECORD_BYTES;
+			long key = this.buffer.getLong(offset);
+			if ((key & ~MOVE_MASK) != firstKey) {
+				break;
+			}
+			int games = this.buffer.getInt(offset + 8);
+			int points = this.buffer.getInt(offset + 12);
+			// points / games > bestPoints / bestGames, without dividing
+			if (games >= minGames && (bestRecord < 0 || (long) points * bestGames > bestPoints * games)
+					&& (legalMoves & 1L << BoardSymmetry.invertSquare(symmetry, (int) (key & MOVE_MASK))) != 0) {
+				bestRecord = i;
+				bestPoints = points;
+				bestGames = games;
+			}
+		}
+		return bestRecord;
+	}
+
+	/**
+	 * @return the square of the record's move in the position it was looked up for
+	 */
+	private int moveSquare(int record, int symmetry) {
+		long key = this.buffer.getLong(HEADER_BYTES + record * RECORD_BYTES);
+		return BoardSymmetry.invertSquare(symmetry, (int) (key & MOVE_MASK));
+	}
+
+	/**
+	 * @return the index of the first record with a key not less than the given key
+	 */
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = this.records;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.buffer.getLong(HEADER_BYTES + middle * RECORD_BYTES) < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,169 @@
+package reversi;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds {@link OpeningBook} files from played games.
+ *
+ * Every game is replayed and the first {@code maxPly} moves are counted, each in the canonical form of the
+ * position it was played in, together with the result for the player who played it.
+ *
+ * Usage: {@code java reversi.OpeningBookBuilder <book file> <game log>...}. Game logs are either game record files
+ * written by {@link GameRecordWriter} (e.g. by {@link ReversiTournament}), or text files with one game per line,
+ * written as moves in the usual notation: a column letter followed by a row number, e.g. {@code d3c5f6}.
+ * Unfinished games and games with illegal moves are skipped.
+ */
+public class OpeningBookBuilder {
+	public static final int DEFAULT_MAX_PLY = 20;
+
+	private final int maxPly;
+	/** Games and points of each record, by key. */
+	private final Map<Long, int[]> records = new HashMap<>();
+	private int games;
+
+	public OpeningBookBuilder() {
+		this(DEFAULT_MAX_PLY);
+	}
+
+	/**
+	 * @param maxPly how many moves from the start of each game go into the book
+	 */
+	public OpeningBookBuilder(int maxPly) {
+		this.maxPly = maxPly;
+	}
+
+	/**
+	 * Adds a finished game to the book.
+	 * @param squares the squares ({@code row * 8 + col}) of the game's moves in order
+	 * @param count the number of moves
+	 * @return false if the game was skipped because a move is illegal or the game isn't over
+	 */
+	public boolean addGame(int[] squares, int count) {
+		ReversiGame game = new ReversiGame();
+		int plies = Math.min(count, this.maxPly);
+		int[] players = new int[plies];
+		long[] keys = new long[plies];
+		for (int ply = 0; ply < count; ply++) {
+			int player = game.getCurPlayer();
+			if (ply < plies) {
+				long own = game.getDisks(player);
+				long opp = game.getDisks(ReversiGame.opponentPlayer(player));
+				int symmetry = BoardSymmetry.canonicalSymmetry(own, opp);
+				players[ply] = player;
+				keys[ply] = (BoardSymmetry.canonicalHash(own, opp) & ~OpeningBook.MOVE_MASK)
+						| BoardSymmetry.applyToSquare(symmetry, squares[ply]);
+			}
+			if (!game.makeMove(squares[ply])) {
+				return false;
+			}
+		}
+		if (!game.isGameOver()) {
+			return false;
+		}
+
+		int winner = game.getWinner();
+		for (int ply = 0; ply < plies; ply++) {
+			int[] record = this.records.computeIfAbsent(keys[ply], key -> new int[2]);
+			record[0]++;
+			record[1] += winner == 0 ? 1 : winner == players[ply] ? 2 : 0;
+		}
+		this.games++;
+		return true;
+	}
+
+	/**
+	 * Adds a game written in the usual notation, e.g. {@code d3c5f6}.
+	 * @return false if the game was skipped, see {@link #addGame(int[], int)}
+	 */
+	public boolean addGame(String moves) {
+		moves = moves.trim();
+		if (moves.length() % 2 != 0) {
+			return false;
+		}
+		int[] squares = new int[moves.length() / 2];
+		for (int i = 0; i < squares.length; i++) {
+			int col = Character.toLowerCase(moves.charAt(2 * i)) - 'a';
+			int row = moves.charAt(2 * i + 1) - '1';
+			if (col < 0 || col >= Bitboard.SIZE || row < 0 || row >= Bitboard.SIZE) {
+				return false;
+			}
+			squares[i] = Bitboard.square(row, col);
+		}
+		return addGame(squares, squares.length);
+	}
+
+	/**
+	 * @return the number of games added so far
+	 */
+	public int getGames() {
+		return this.games;
+	}
+
+	/**
+	 * Writes the book, with its records sorted by key.
+	 */
+	public void write(Path file) throws IOException {
+		long[] keys = new long[this.records.size()];
+		int i = 0;
+		for (long key : this.records.keySet()) {
+			keys[i++] = key;
+		}
+		Arrays.sort(keys);
+		try (OutputStream fileOut = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeLong(keys.length);
+			for (long key : keys) {
+				int[] record = this.records.get(key);
+				out.writeLong(key);
+				out.writeInt(record[0]);
+				out.writeInt(record[1]);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java reversi.OpeningBookBuilder <book file> <game log>...");
+			return;
+		}
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		int skipped = 0;
+		for (int i = 1; i < args.length; i++) {
+			Path log = Paths.get(args[i]);
+			if (GameRecordReader.isGameRecordFile(log)) {
+				try (GameRecordReader reader = new GameRecordReader(log)) {
+					GameRecord record;
+					while ((record = reader.next()) != null) {
+						if (!builder.addGame(record.getMoves(), record.getMoveCount())) {
+							skipped++;
+						}
+					}
+				}
+				continue;
+			}
+			try (BufferedReader reader = Files.newBufferedReader(log)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (!line.isBlank() && !builder.addGame(line)) {
+						skipped++;
+					}
+				}
+			}
+		}
+		builder.write(Paths.get(args[0]));
+		System.out.println("Wrote " + builder.records.size() + " positions from " + builder.getGames() + " games to "
+				+ args[0] + " (" + skipped + " games skipped)");
+	}
+}
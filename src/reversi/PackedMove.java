@@ -0,0 +1,35 @@
+package reversi;
+
+/**
+ * A move packed into a single {@code int}, used by the allocation-free move generation in {@link ReversiGame}.
+ * The low 8 bits hold the square ({@code row * 8 + col}) and the rest hold the number of flips.
+ */
+public final class PackedMove {
+
+	private PackedMove() {
+	}
+
+	public static int pack(int square, int flips) {
+		return square | (flips << 8);
+	}
+
+	public static int square(int move) {
+		return move & 0xFF;
+	}
+
+	public static int row(int move) {
+		return Bitboard.row(square(move));
+	}
+
+	public static int col(int move) {
+		return Bitboard.col(square(move));
+	}
+
+	public static int flips(int move) {
+		return move >>> 8;
+	}
+
+	public static MoveScore toMoveScore(int move) {
+		return new MoveScore(row(move), col(move), flips(move));
+	}
+}
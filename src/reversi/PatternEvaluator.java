@@ -0,0 +1,97 @@
+package reversi;
+
+/**
+ * Evaluates positions by table lookups: the contents of every pattern instance (see {@link Patterns}) index the
+ * weights of its type, and the weights are summed along with mobility and parity terms.
+ *
+ * The weight indices of the instances are kept up to date move by move: {@link #play(int, int, long)} and
+ * {@link #undo(int, int, long)} only touch the instances covering the changed squares, so evaluating is one lookup
+ * per instance. Call {@link #setPosition(long, long)} first, then keep it in step with the moves played and taken
+ * back. Each search thread needs its own evaluator; the weights can be shared.
+ */
+public class PatternEvaluator {
+	private final EvaluationWeights weights;
+	private final int[] indices = new int[Patterns.INSTANCES];
+
+	public PatternEvaluator() {
+		this(EvaluationWeights.getDefault());
+	}
+
+	public PatternEvaluator(EvaluationWeights weights) {
+		this.weights = weights;
+	}
+
+	public void setPosition(long playerOneDisks, long playerTwoDisks) {
+		Patterns.computeIndices(playerOneDisks, playerTwoDisks, this.indices);
+	}
+
+	/**
+	 * Updates the patterns for a move.
+	 * @param player the player who moved
+	 * @param square the square played
+	 * @param flips the disks the move flipped
+	 */
+	public void play(int player, int square, long flips) {
+		update(square, player);
+		// Player one's disks (1) become player two's (2) or the other way around
+		int change = player == ReversiGame.PLAYER_ONE ? -1 : 1;
+		for (; flips != 0; flips &= flips - 1) {
+			update(Long.numberOfTrailingZeros(flips), change);
+		}
+	}
+
+	/**
+	 * Takes back a move given to {@link #play(int, int, long)}.
+	 */
+	public void undo(int player, int square, long flips) {
+		update(square, -player);
+		int change = player == ReversiGame.PLAYER_ONE ? 1 : -1;
+		for (; flips != 0; flips &= flips - 1) {
+			update(Long.numberOfTrailingZeros(flips), change);
+		}
+	}
+
+	private void update(int square, int change) {
+		int[] instances = Patterns.SQUARE_INSTANCES[square];
+		int[] powers = Patterns.SQUARE_POWERS[square];
+		for (int i = 0; i < instances.length; i++) {
+			this.indices[instances[i]] += change * powers[i];
+		}
+	}
+
+	/**
+	 * @return the value of the position for the given player to move. The disks must match the position given to
+	 *         {@link #setPosition(long, long)} and the moves since.
+	 */
+	public int evaluate(int player, long playerOneDisks, long playerTwoDisks) {
+		return evaluate(player, playerOneDisks, playerTwoDisks, Bitboard.moves(playerOneDisks, playerTwoDisks),
+				Bitboard.moves(playerTwoDisks, playerOneDisks));
+	}
+
+	/**
+	 * Same as {@link #evaluate(int, long, long)}, for callers that already generated both players' moves.
+	 */
+	public int evaluate(int player, long playerOneDisks, long playerTwoDisks, long playerOneMoves,
+			long playerTwoMoves) {
+		int stage = EvaluationWeights.stage(Long.bitCount(playerOneDisks | playerTwoDisks));
+		short[] patternWeights = this.weights.patterns[stage];
+		int score = 0;
+		for (int instance = 0; instance < Patterns.INSTANCES; instance++) {
+			score += patternWeights[this.indices[instance]];
+		}
+		score += this.weights.mobility[stage] * (Long.bitCount(playerOneMoves) - Long.bitCount(playerTwoMoves));
+		if (player == ReversiGame.PLAYER_TWO) {
+			score = -score;
+		}
+		// With an odd number of empty squares the player to move should get the last move
+		int empties = Long.bitCount(~(playerOneDisks | playerTwoDisks));
+		return score + ((empties & 1) != 0 ? this.weights.parity[stage] : -this.weights.parity[stage]);
+	}
+
+	/**
+	 * @return the current weight index of every pattern instance, see {@link Patterns#computeIndices}
+	 */
+	int[] getIndices() {
+		return this.indices;
+	}
+}
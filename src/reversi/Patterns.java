@@ -0,0 +1,142 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The board patterns of the {@link PatternEvaluator}: lines and areas of squares whose contents, taken together,
+ * index a table of weights.
+ *
+ * Each pattern type has one base list of squares. Its instances are the base list moved by each of the 8 board
+ * symmetries (dropping instances that cover the same squares), and all the instances of a type share its weights.
+ * The contents of an instance are a base-3 number: square i of the instance adds 3^i times 0 for empty,
+ * 1 for player one or 2 for player two.
+ */
+public final class Patterns {
+	public static final int EDGE = 0;
+	public static final int CORNER_3X3 = 1;
+	public static final int CORNER_2X5 = 2;
+	public static final int DIAGONAL_8 = 3;
+	public static final int DIAGONAL_7 = 4;
+	public static final int DIAGONAL_6 = 5;
+	public static final int DIAGONAL_5 = 6;
+	public static final int DIAGONAL_4 = 7;
+	public static final int TYPES = 8;
+
+	/** The base squares of each pattern type, as (row, col) pairs. */
+	private static final int[][][] BASE_SQUARES = {
+			{{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {0, 6}, {0, 7}},
+			{{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},
+			{{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 0}, {1, 1}, {1, 2}, {1, 3}, {1, 4}},
+			{{0, 0}, {1, 1}, {2, 2}, {3, 3}, {4, 4}, {5, 5}, {6, 6}, {7, 7}},
+			{{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}, {5, 6}, {6, 7}},
+			{{0, 2}, {1, 3}, {2, 4}, {3, 5}, {4, 6}, {5, 7}},
+			{{0, 3}, {1, 4}, {2, 5}, {3, 6}, {4, 7}},
+			{{0, 4}, {1, 5}, {2, 6}, {3, 7}},
+	};
+
+	/** The number of possible contents (3^squares) of each type. */
+	static final int[] TYPE_SIZES = new int[TYPES];
+	/** Where each type's weights start in a stage's weight table. */
+	static final int[] TYPE_OFFSETS = new int[TYPES];
+	/** The size of a stage's weight table: the sum of all type sizes. */
+	static final int WEIGHTS_PER_STAGE;
+
+	/** The type of each instance. */
+	static final int[] INSTANCE_TYPES;
+	/** The squares of each instance, in base order. */
+	static final int[][] INSTANCE_SQUARES;
+	public static final int INSTANCES;
+
+	/** For each square, the instances covering it and the power of 3 of the square in each of them. */
+	static final int[][] SQUARE_INSTANCES = new int[Bitboard.SQUARES][];
+	static final int[][] SQUARE_POWERS = new int[Bitboard.SQUARES][];
+
+	static {
+		int offset = 0;
+		List<Integer> types = new ArrayList<>();
+		List<int[]> instances = new ArrayList<>();
+		for (int type = 0; type < TYPES; type++) {
+			int[][] base = BASE_SQUARES[type];
+			TYPE_SIZES[type] = power(base.length);
+			TYPE_OFFSETS[type] = offset;
+			offset += TYPE_SIZES[type];
+
+			Set<Long> covered = new HashSet<>();
+			for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+				int[] squares = new int[base.length];
+				long mask = 0;
+				for (int i = 0; i < base.length; i++) {
+					squares[i] = BoardSymmetry.applyToSquare(symmetry, Bitboard.square(base[i][0], base[i][1]));
+					mask |= 1L << squares[i];
+				}
+				if (covered.add(mask)) {
+					types.add(type);
+					instances.add(squares);
+				}
+			}
+		}
+		WEIGHTS_PER_STAGE = offset;
+		INSTANCES = instances.size();
+		INSTANCE_TYPES = new int[INSTANCES];
+		INSTANCE_SQUARES = instances.toArray(new int[0][]);
+		for (int i = 0; i < INSTANCES; i++) {
+			INSTANCE_TYPES[i] = types.get(i);
+		}
+
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			List<int[]> covering = new ArrayList<>();
+			for (int instance = 0; instance < INSTANCES; instance++) {
+				int[] squares = INSTANCE_SQUARES[instance];
+				for (int i = 0; i < squares.length; i++) {
+					if (squares[i] == square) {
+						covering.add(new int[] {instance, power(i)});
+					}
+				}
+			}
+			SQUARE_INSTANCES[square] = new int[covering.size()];
+			SQUARE_POWERS[square] = new int[covering.size()];
+			for (int i = 0; i < covering.size(); i++) {
+				SQUARE_INSTANCES[square][i] = covering.get(i)[0];
+				SQUARE_POWERS[square][i] = covering.get(i)[1];
+			}
+		}
+	}
+
+	private Patterns() {
+	}
+
+	/**
+	 * @return the base squares of the pattern type, as (row, col) pairs
+	 */
+	static int[][] baseSquares(int type) {
+		return BASE_SQUARES[type];
+	}
+
+	/**
+	 * Computes the weight index of every instance from scratch: where the instance's contents are in a stage's
+	 * weight table, that is the offset of its type plus its contents.
+	 * @param indices filled with the weight index of each instance
+	 */
+	public static void computeIndices(long playerOneDisks, long playerTwoDisks, int[] indices) {
+		for (int instance = 0; instance < INSTANCES; instance++) {
+			int[] squares = INSTANCE_SQUARES[instance];
+			int index = 0;
+			for (int i = squares.length - 1; i >= 0; i--) {
+				long bit = 1L << squares[i];
+				index = index * 3 + ((playerOneDisks & bit) != 0 ? 1 : (playerTwoDisks & bit) != 0 ? 2 : 0);
+			}
+			indices[instance] = TYPE_OFFSETS[INSTANCE_TYPES[instance]] + index;
+		}
+	}
+
+	private static int power(int exponent) {
+		int result = 1;
+		for (int i = 0; i < exponent; i++) {
+			result *= 3;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,175 @@
+package reversi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth ("perft"), to check move generation against known counts
+ * and to measure its raw speed.
+ *
+ * A pass counts as a ply: when the player to move has no moves but the opponent does, the tree continues through a
+ * single pass node. A finished game counts as one leaf, whatever the remaining depth.
+ *
+ * Usage: {@code java reversi.Perft [depth=11] [threads=cores]} prints the count of every depth up to the given one,
+ * compared with {@link #REFERENCE_COUNTS}, and the nodes per second. The exit code is 1 if a count is wrong.
+ */
+public class Perft {
+	public static final int DEFAULT_DEPTH = 11;
+	/** The leaf counts from the initial 8x8 position, indexed by depth. */
+	public static final long[] REFERENCE_COUNTS = {1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L,
+			24571284L, 212258800L, 1939886636L, 18429641748L, 184042084512L};
+	/** Subtrees with at most this many plies left are counted sequentially instead of being split into tasks. */
+	private static final int SEQUENTIAL_DEPTH = 6;
+
+	private Perft() {
+	}
+
+	/**
+	 * Counts the leaves under the game's position on the calling thread. The game is left in its original position.
+	 * @param game an 8x8 game, with the player to move having a move unless the game is over, as after a move or
+	 *             {@link ReversiGame#setPositionAndPass(Position)}
+	 */
+	public static long count(ReversiGame game, int depth) {
+		return new Counter(game).count(depth);
+	}
+
+	/**
+	 * Counts the leaves under the game's position, splitting the top of the tree across the pool.
+	 * @param game an 8x8 game as for {@link #count(ReversiGame, int)}, not modified
+	 */
+	public static long count(ReversiGame game, int depth, ForkJoinPool pool) {
+		return pool.invoke(new Task(new ReversiGame(game), depth));
+	}
+
+	/**
+	 * Depth-first search over one game, with a move buffer per ply so nothing is allocated.
+	 */
+	private static final class Counter {
+		private final ReversiGame game;
+		private int[][] moveBuffers = new int[0][];
+
+		Counter(ReversiGame game) {
+			this.game = game;
+		}
+
+		long count(int depth) {
+			if (depth == 0) {
+				return 1;
+			}
+			if (this.moveBuffers.length < depth) {
+				this.moveBuffers = new int[depth][ReversiGame.MOVE_BUFFER_SIZE];
+			}
+			int player = this.game.getCurPlayer();
+			int[] moves = this.moveBuffers[depth - 1];
+			int count = this.game.getPossibleMoves(player, moves);
+			if (count == 0) {
+				// makeMove passes for the opponent, so the player to move has no moves only when the game is over
+				return 1;
+			}
+			if (depth == 1) {
+				// Every move leads to a leaf, no need to play them
+				return count;
+			}
+			long nodes = 0;
+			for (int i = 0; i < count; i++) {
+				this.game.makeMove(PackedMove.square(moves[i]));
+				nodes += countChild(depth - 1, player);
+				this.game.undoMove();
+			}
+			return nodes;
+		}
+
+		/**
+		 * Counts the leaves after a move of the given player, going through the opponent's pass if it has to pass.
+		 */
+		private long countChild(int depth, int mover) {
+			if (this.game.getCurPlayer() != mover || depth == 0) {
+				return count(depth);
+			}
+			if (this.game.isGameOver()) {
+				return 1;
+			}
+			return depth == 1 ? 1 : count(depth - 1);
+		}
+	}
+
+	private static final class Task extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final ReversiGame game;
+		private final int depth;
+
+		Task(ReversiGame game, int depth) {
+			this.game = game;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			Counter counter = new Counter(this.game);
+			if (this.depth <= SEQUENTIAL_DEPTH) {
+				return counter.count(this.depth);
+			}
+			int player = this.game.getCurPlayer();
+			int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+			int count = this.game.getPossibleMoves(player, moves);
+			if (count == 0) {
+				return counter.count(this.depth);
+			}
+			long nodes = 0;
+			List<Task> children = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				ReversiGame child = new ReversiGame(this.game);
+				child.makeMove(PackedMove.square(moves[i]));
+				int childDepth = this.depth - 1;
+				if (child.getCurPlayer() == player) {
+					if (child.isGameOver()) {
+						nodes++;
+						continue;
+					}
+					// The opponent passes
+					childDepth--;
+				}
+				children.add(new Task(child, childDepth));
+			}
+			invokeAll(children);
+			for (Task child : children) {
+				nodes += child.join();
+			}
+			return nodes;
+		}
+	}
+
+	public static void main(String[] args) {
+		int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		System.out.println("Perft from the initial position on " + threads + " threads");
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		boolean correct = true;
+		try {
+			for (int depth = 1; depth <= maxDepth; depth++) {
+				long start = System.nanoTime();
+				long nodes = count(new ReversiGame(), depth, pool);
+				long nanos = System.nanoTime() - start;
+				String check;
+				if (depth >= REFERENCE_COUNTS.length) {
+					check = "no reference";
+				} else if (nodes == REFERENCE_COUNTS[depth]) {
+					check = "OK";
+				} else {
+					check = "WRONG, expected " + REFERENCE_COUNTS[depth];
+					correct = false;
+				}
+				System.out.printf("depth %2d: %,15d nodes in %8.3f s (%,.0f nodes/sec) %s%n", depth, nodes, nanos / 1e9,
+						nodes * 1e9 / Math.max(nanos, 1), check);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		if (!correct) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package reversi;
+
+/**
+ * An immutable 8x8 position: the disks of both players as bitboards and the player to move. A position is two longs
+ * and an int instead of a board array, and never changes, so it can be shared between threads and used as a map key
+ * without copying.
+ *
+ * Get the position of a game with {@link ReversiGame#getPosition()} and load one with
+ * {@link ReversiGame#setPosition(Position)}, both without copying a board.
+ */
+public final class Position {
+	/** The position at the start of a game. */
+	public static final Position INITIAL = new Position(Bitboard.bit(3, 3) | Bitboard.bit(4, 4),
+			Bitboard.bit(3, 4) | Bitboard.bit(4, 3), ReversiGame.PLAYER_ONE);
+
+	private final long playerOneDisks;
+	private final long playerTwoDisks;
+	private final int player;
+
+	/**
+	 * @param player the player to move
+	 * @throws IllegalArgumentException if a square has disks of both players or the player isn't valid
+	 */
+	public Position(long playerOneDisks, long playerTwoDisks, int player) {
+		if ((playerOneDisks & playerTwoDisks) != 0
+				|| (player != ReversiGame.PLAYER_ONE && player != ReversiGame.PLAYER_TWO)) {
+			throw new IllegalArgumentException("Not a valid position");
+		}
+		this.playerOneDisks = playerOneDisks;
+		this.playerTwoDisks = playerTwoDisks;
+		this.player = player;
+	}
+
+	/**
+	 * @param board the board, indexed [row][column] like {@link ReversiGame#getBoard()}. Only read here.
+	 * @param player the player to move
+	 */
+	public Position(int[][] board, int player) {
+		this(disks(board, ReversiGame.PLAYER_ONE), disks(board, ReversiGame.PLAYER_TWO), player);
+	}
+
+	/**
+	 * Reads a position written by {@link #toString()}.
+	 * @throws IllegalArgumentException if the text isn't a position
+	 */
+	public static Position parse(String text) {
+		if (text.length() != Bitboard.SQUARES + 2 || text.charAt(Bitboard.SQUARES) != ' ') {
+			throw new IllegalArgumentException("Not a position: " + text);
+		}
+		char side = text.charAt(Bitboard.SQUARES + 1);
+		if (side != 'X' && side != 'O') {
+			throw new IllegalArgumentException("Not a position: " + text);
+		}
+		long playerOne = 0;
+		long playerTwo = 0;
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			char disk = text.charAt(square);
+			if (disk == 'X') {
+				playerOne |= 1L << square;
+			} else if (disk == 'O') {
+				playerTwo |= 1L << square;
+			} else if (disk != '-') {
+				throw new IllegalArgumentException("Not a position: " + text);
+			}
+		}
+		return new Position(playerOne, playerTwo, side == 'X' ? ReversiGame.PLAYER_ONE : ReversiGame.PLAYER_TWO);
+	}
+
+	public long getPlayerOneDisks() {
+		return this.playerOneDisks;
+	}
+
+	public long getPlayerTwoDisks() {
+		return this.playerTwoDisks;
+	}
+
+	/**
+	 * @return the disks of the given player
+	 */
+	public long getDisks(int player) {
+		return player == ReversiGame.PLAYER_ONE ? this.playerOneDisks : this.playerTwoDisks;
+	}
+
+	/**
+	 * @return the player to move
+	 */
+	public int getPlayer() {
+		return this.player;
+	}
+
+	/**
+	 * @return the player whose disk is on the square, or 0 if it's empty
+	 */
+	public int get(int row, int col) {
+		long bit = Bitboard.bit(row, col);
+		return (this.playerOneDisks & bit) != 0 ? ReversiGame.PLAYER_ONE
+				: (this.playerTwoDisks & bit) != 0 ? ReversiGame.PLAYER_TWO : 0;
+	}
+
+	public int getEmptyCount() {
+		return Long.bitCount(~(this.playerOneDisks | this.playerTwoDisks));
+	}
+
+	/**
+	 * @return a new board array of the position, indexed [row][column]
+	 */
+	public int[][] toBoard() {
+		int[][] board = new int[Bitboard.SIZE][Bitboard.SIZE];
+		for (int row = 0; row < Bitboard.SIZE; row++) {
+			for (int col = 0; col < Bitboard.SIZE; col++) {
+				board[row][col] = get(row, col);
+			}
+		}
+		return board;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Position)) {
+			return false;
+		}
+		Position position = (Position) other;
+		return this.playerOneDisks == position.playerOneDisks && this.playerTwoDisks == position.playerTwoDisks
+				&& this.player == position.player;
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = this.playerOneDisks * 0x9E3779B97F4A7C15L + this.playerTwoDisks;
+		hash = (hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L + this.player;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * @return the 64 squares row by row ({@code X} for player one, {@code O} for player two, {@code -} for empty),
+	 *         a space and the player to move ({@code X} or {@code O})
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(Bitboard.SQUARES + 2);
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			long bit = 1L << square;
+			sb.append((this.playerOneDisks & bit) != 0 ? 'X' : (this.playerTwoDisks & bit) != 0 ? 'O' : '-');
+		}
+		return sb.append(' ').append(this.player == ReversiGame.PLAYER_ONE ? 'X' : 'O').toString();
+	}
+
+	private static long disks(int[][] board, int player) {
+		long disks = 0;
+		for (int row = 0; row < Bitboard.SIZE; row++) {
+			for (int col = 0; col < Bitboard.SIZE; col++) {
+				if (board[row][col] == player) {
+					disks |= Bitboard.bit(row, col);
+				}
+			}
+		}
+		return disks;
+	}
+}
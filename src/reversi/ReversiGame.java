@@ -7,15 +7,75 @@ import java.util.Arrays;
  * This class manages the game state, including the board, current player, and the game logic required
  * to play Reversi. It provides methods to initialize the game, make moves, print the board, and determine
  * the game outcome.
+ *
+ * The standard board is 8x8. Other even sizes from 4 to 16 can be chosen with {@link #ReversiGame(int)}; those games
+ * support the {@link MoveScore} methods but not the bitboard methods ({@link #getDisks(int)},
+ * {@link #getMoveMask(int)}, {@link #getHash()} and the {@link PackedMove} buffers), which are 8x8 only.
  */
 public class ReversiGame {
 	public static int PLAYER_ONE = 1;
 	public static int PLAYER_TWO = 2;
 
+	/**
+	 * A buffer of this size can hold all the possible moves of any position.
+	 */
+	public static final int MOVE_BUFFER_SIZE = Bitboard.SQUARES;
+
+	/**
+	 * Array view of the board. It's kept in sync with {@link #disks} on every move so references handed out by
+	 * {@link #getBoard()} always show the current position.
+	 */
 	private int[][] board;
 
+	/**
+	 * Bitboards of the disks of each player, indexed by player number (index 0 is unused).
+	 * These are what the game logic works on, see {@link Bitboard}.
+	 */
+	private final long[] disks = new long[3];
+
+	/**
+	 * Set when {@link #getBoard()} hands out the board array, since the caller may write disks into it.
+	 * The bitboards are rebuilt from the array before the next move generation.
+	 */
+	private boolean boardExposed;
+
 	private int curPlayer;
 
+	/** The {@link Zobrist} hash of the position, updated with every change to the disks or the current player. */
+	private long hash;
+
+	/**
+	 * The undo stack of {@link #makeMove(int)}: for each move played, the square, the flipped disks and the player
+	 * that played it. If the player after the move is the same one, the opponent had to pass.
+	 */
+	private final int[] undoSquares = new int[Bitboard.SQUARES];
+	private final long[] undoFlips = new long[Bitboard.SQUARES];
+	private final int[] undoPlayers = new int[Bitboard.SQUARES];
+	/** The move masks cache of the position before each move on the undo stack, restored by {@link #undoMove()}. */
+	private final long[] undoMoveMasks = new long[2 * Bitboard.SQUARES];
+	private final int[] undoValidMoveMasks = new int[Bitboard.SQUARES];
+	private int undoCount;
+
+	/**
+	 * The legal moves of each player, indexed by player number. Filled in when first needed after the disks change,
+	 * so game-over and pass checks cost one move generation per player per position at most.
+	 */
+	private final long[] moveMasks = new long[3];
+	/** Bit {@code 1 << player} is set if {@link #moveMasks} holds the player's moves for the current position. */
+	private int validMoveMasks;
+	/** The number of disks of each player, indexed by player number. */
+	private final int[] diskCounts = new int[3];
+
+	private GameListener listener = GameListener.CONSOLE;
+
+	/** Reused by {@link #getPossibleMoves(int)} to collect the moves before wrapping them in MoveScores. */
+	private final int[] moveBuffer;
+
+	/** The number of rows and columns. */
+	private final int size;
+	/** The position of a game on a board other than 8x8, null on 8x8 boards which use {@link #disks}. */
+	private final BitsetBoard wide;
+
 	/**
 	 * Initializes the board: all squares are 0 except the four disks in the
 	 * middle
@@ -24,24 +84,237 @@ public class ReversiGame {
 	 * @return the initialized board
 	 */
 	public ReversiGame() {
+		this(Bitboard.SIZE);
+	}
+
+	/**
+	 * Starts a game on a board of the given size, with the four disks in the middle.
+	 * @param size the number of rows and columns: 8, or another even number from 4 to 16
+	 * @throws IllegalArgumentException if the size isn't supported
+	 */
+	public ReversiGame(int size) {
+		this.size = size;
 		this.curPlayer = PLAYER_ONE;
+		if (size != Bitboard.SIZE) {
+			this.wide = new BitsetBoard(size);
+			this.moveBuffer = new int[size * size];
+			this.board = this.wide.board;
+			return;
+		}
+		this.wide = null;
+		this.moveBuffer = new int[MOVE_BUFFER_SIZE];
+		this.board = new int[Bitboard.SIZE][Bitboard.SIZE];
+		this.board[3][3] = PLAYER_ONE;
+		this.board[3][4] = PLAYER_TWO;
+		this.board[4][3] = PLAYER_TWO;
+		this.board[4][4] = PLAYER_ONE;
+		this.disks[PLAYER_ONE] = Bitboard.bit(3, 3) | Bitboard.bit(4, 4);
+		this.disks[PLAYER_TWO] = Bitboard.bit(3, 4) | Bitboard.bit(4, 3);
+		this.diskCounts[PLAYER_ONE] = 2;
+		this.diskCounts[PLAYER_TWO] = 2;
+		this.hash = Zobrist.hash(this.disks[PLAYER_ONE], this.disks[PLAYER_TWO], this.curPlayer);
+	}
+
+	/**
+	 * Creates an independent copy of the given game's position and current player. The copy starts with an empty
+	 * undo history and no listener ({@link GameListener#NONE}), since copies are usually made to explore moves.
+	 */
+	public ReversiGame(ReversiGame other) {
+		this.size = other.size;
+		this.moveBuffer = new int[other.moveBuffer.length];
+		this.curPlayer = other.curPlayer;
+		this.listener = GameListener.NONE;
+		if (other.wide != null) {
+			this.wide = new BitsetBoard(other.wide);
+			this.board = this.wide.board;
+			return;
+		}
+		this.wide = null;
+		other.syncDisks();
+		this.board = new int[Bitboard.SIZE][];
+		for (int row = 0; row < Bitboard.SIZE; row++) {
+			this.board[row] = other.board[row].clone();
+		}
+		this.disks[PLAYER_ONE] = other.disks[PLAYER_ONE];
+		this.disks[PLAYER_TWO] = other.disks[PLAYER_TWO];
+		this.diskCounts[PLAYER_ONE] = other.diskCounts[PLAYER_ONE];
+		this.diskCounts[PLAYER_TWO] = other.diskCounts[PLAYER_TWO];
+		this.moveMasks[PLAYER_ONE] = other.moveMasks[PLAYER_ONE];
+		this.moveMasks[PLAYER_TWO] = other.moveMasks[PLAYER_TWO];
+		this.validMoveMasks = other.validMoveMasks;
+		this.hash = other.hash;
+	}
+
+	/**
+	 * Sets the listener that is told about the moves played with {@link #placeDisk(int, int)}; moves played with
+	 * {@link #makeMove(int, int)} aren't reported. New games print every
+	 * {@link #placeDisk(int, int)} call to the console ({@link GameListener#CONSOLE}); set
+	 * {@link GameListener#NONE} to play without any output.
+	 */
+	public void setListener(GameListener listener) {
+		this.listener = listener;
+	}
 
+	public GameListener getListener() {
+		return this.listener;
 	}
 
+	/**
+	 * @return the board itself (not a copy). Changes written into it are picked up by the next call to any of the
+	 *         game methods, as long as the board was fetched through this method before writing into it.
+	 */
 	public int[][] getBoard() {
+		if (this.wide != null) {
+			return this.wide.getBoard();
+		}
+		this.boardExposed = true;
 		return this.board;
 	}
 
 	/**
-	 * Task 1: Implement this method
+	 * @return the number of rows and columns of the board
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Task 1
 	 * @return
 	 */
 	public int getCurPlayer() {
-		return PLAYER_ONE;
+		return this.curPlayer;
+	}
+
+	/**
+	 * Fails for games that aren't 8x8, which have no bitboards.
+	 */
+	private void requireBitboard() {
+		if (this.wide != null) {
+			throw new UnsupportedOperationException("Bitboards are only available on 8x8 boards, this one is "
+					+ this.size + "x" + this.size);
+		}
+	}
+
+	/**
+	 * Rebuilds the bitboards from the board array if it was handed out by {@link #getBoard()}.
+	 */
+	private void syncDisks() {
+		if (!this.boardExposed) {
+			return;
+		}
+		this.boardExposed = false;
+		long playerOne = 0;
+		long playerTwo = 0;
+		for (int row = 0; row < Bitboard.SIZE; row++) {
+			for (int col = 0; col < Bitboard.SIZE; col++) {
+				if (this.board[row][col] == PLAYER_ONE) {
+					playerOne |= Bitboard.bit(row, col);
+				} else if (this.board[row][col] == PLAYER_TWO) {
+					playerTwo |= Bitboard.bit(row, col);
+				}
+			}
+		}
+		if (this.disks[PLAYER_ONE] != playerOne || this.disks[PLAYER_TWO] != playerTwo) {
+			// The moves on the undo stack don't lead to this position anymore
+			this.undoCount = 0;
+		}
+		this.disks[PLAYER_ONE] = playerOne;
+		this.disks[PLAYER_TWO] = playerTwo;
+		this.diskCounts[PLAYER_ONE] = Long.bitCount(playerOne);
+		this.diskCounts[PLAYER_TWO] = Long.bitCount(playerTwo);
+		this.validMoveMasks = 0;
+		this.hash = Zobrist.hash(playerOne, playerTwo, this.curPlayer);
+	}
+
+	/**
+	 * Replaces the position and the player to move, and clears the undo history.
+	 */
+	void setPosition(long playerOneDisks, long playerTwoDisks, int player) {
+		requireBitboard();
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			long bit = 1L << square;
+			this.board[Bitboard.row(square)][Bitboard.col(square)] = (playerOneDisks & bit) != 0 ? PLAYER_ONE
+					: (playerTwoDisks & bit) != 0 ? PLAYER_TWO : 0;
+		}
+		this.boardExposed = false;
+		this.disks[PLAYER_ONE] = playerOneDisks;
+		this.disks[PLAYER_TWO] = playerTwoDisks;
+		this.diskCounts[PLAYER_ONE] = Long.bitCount(playerOneDisks);
+		this.diskCounts[PLAYER_TWO] = Long.bitCount(playerTwoDisks);
+		this.validMoveMasks = 0;
+		this.undoCount = 0;
+		this.curPlayer = player;
+		this.hash = Zobrist.hash(playerOneDisks, playerTwoDisks, player);
+	}
+
+	/**
+	 * Replaces the position and the player to move with a snapshot from {@link #getPosition()}, and clears the undo
+	 * history. The listener isn't told. No move is generated and no automatic pass is made, so the player to move may
+	 * have no moves while the opponent has; use {@link #setPositionAndPass(Position)} where that matters.
+	 */
+	public void setPosition(Position position) {
+		setPosition(position.getPlayerOneDisks(), position.getPlayerTwoDisks(), position.getPlayer());
+	}
+
+	/**
+	 * Like {@link #setPosition(Position)}, but if the player to move has no moves and the opponent has, the opponent
+	 * is to move instead, as after a move.
+	 */
+	public void setPositionAndPass(Position position) {
+		setPosition(position);
+		if (moves(this.curPlayer) == 0) {
+			switchToNextPlayablePlayer();
+		}
+	}
+
+	/**
+	 * @return an immutable snapshot of the disks and the player to move, which later moves don't change
+	 */
+	public Position getPosition() {
+		requireBitboard();
+		syncDisks();
+		return new Position(this.disks[PLAYER_ONE], this.disks[PLAYER_TWO], this.curPlayer);
+	}
+
+	/**
+	 * @return the player's legal moves as a mask, from the cache if they were already generated for this position
+	 */
+	private long moves(int player) {
+		if ((this.validMoveMasks & 1 << player) == 0) {
+			this.moveMasks[player] = Bitboard.moves(this.disks[player], this.disks[opponentPlayer(player)]);
+			this.validMoveMasks |= 1 << player;
+		}
+		return this.moveMasks[player];
 	}
 
 	/**
-	 * Task 2: Implement this method
+	 * Sets all the squares of the mask to the given player, both in the bitboards and in the board array.
+	 */
+	private void setDisks(int player, long mask) {
+		int opponent = opponentPlayer(player);
+		long taken = mask & this.disks[opponent];
+		long added = mask & ~this.disks[player];
+		this.hash ^= Zobrist.disksKey(opponent, taken) ^ Zobrist.disksKey(player, added);
+		this.diskCounts[player] += Long.bitCount(added);
+		this.diskCounts[opponent] -= Long.bitCount(taken);
+		this.validMoveMasks = 0;
+		this.disks[player] |= mask;
+		this.disks[opponent] &= ~mask;
+		while (mask != 0) {
+			int square = Long.numberOfTrailingZeros(mask);
+			this.board[Bitboard.row(square)][Bitboard.col(square)] = player;
+			mask &= mask - 1;
+		}
+	}
+
+	private void setCurPlayer(int player) {
+		this.hash ^= Zobrist.sideKey(this.curPlayer) ^ Zobrist.sideKey(player);
+		this.curPlayer = player;
+	}
+
+	/**
+	 * Task 2
 	 *
 	 * Prints the board with the row/column indices to the console in the following format
 	 *
@@ -59,33 +332,46 @@ public class ReversiGame {
 	 */
 
 	public void printBoard() {
-
+		StringBuilder sb = new StringBuilder();
+		sb.append("   ");
+		for (int col = 0; col < this.size; col++) {
+			sb.append(col).append(' ');
+		}
+		sb.append('\n');
+		for (int row = 0; row < this.size; row++) {
+			sb.append(' ').append(row);
+			for (int col = 0; col < this.size; col++) {
+				sb.append(' ').append(this.board[row][col]);
+			}
+			sb.append('\n');
+		}
+		System.out.print(sb);
 	}
 
 	/**
-	 * * Task 3: Implement this method
+	 * * Task 3
 	 * @param row
 	 * @param col
 	 * @return true if the given row and column are on the board, false otherwise
 	 */
 	public boolean isOnBoard(int row, int col) {
-		return false;
+		return row >= 0 && row < this.size && col >= 0 && col < this.size;
 	}
 
 	/**
-	 * Task 3: Implement this method
+	 * Task 3
 	 * Returns the opponents player number (1 or 2) for a given player number (1 or 2)
 	 * @param player
 	 * @return
 	 */
 	public static int opponentPlayer(int player) {
-		return PLAYER_ONE;
+		return player == PLAYER_ONE ? PLAYER_TWO : PLAYER_ONE;
 	}
 
 // ================================================================================  PART A2  =============================================================================== ======================================== ========================================
 
 	/**
-	 * Task 4: Implement this method
+	 * Task 4
 	 * @param player player number (1 or 2)
 	 * @param row row of the move
 	 * @param col column of the move
@@ -94,11 +380,20 @@ public class ReversiGame {
 	 * @return the number of opponent's disks that will be flipped in the given direction
 	 */
 	public int calcFlipsInDirection(int player, int row, int col, int rowInc, int columnInc) {
-		return 0;
+		if (!isOnBoard(row, col)) {
+			return 0;
+		}
+		if (this.wide != null) {
+			return this.wide.calcFlipsInDirection(player, row, col, rowInc, columnInc);
+		}
+		syncDisks();
+		long flips = Bitboard.flipsInDirection(this.disks[player], this.disks[opponentPlayer(player)],
+				Bitboard.square(row, col), rowInc, columnInc);
+		return Long.bitCount(flips);
 	}
 
 	/**
-	 * Task 4: Implement this method
+	 * Task 4
 	 * @param row row of the move
 	 * @param col column of the move
 	 * @param rowInc row increment (-1, 0, or 1)
@@ -106,21 +401,34 @@ public class ReversiGame {
 	 * @return the number of disks that were flipped in the given direction
 	 */
 	public int updateMoveDisksInSingleDirection(int row, int col, int rowInc, int colInc) {
-		return 0;
+		if (!isOnBoard(row, col)) {
+			return 0;
+		}
+		if (this.wide != null) {
+			return this.wide.flipInDirection(this.curPlayer, row, col, rowInc, colInc);
+		}
+		syncDisks();
+		long flips = Bitboard.flipsInDirection(this.disks[this.curPlayer], this.disks[opponentPlayer(this.curPlayer)],
+				Bitboard.square(row, col), rowInc, colInc);
+		setDisks(this.curPlayer, flips);
+		return Long.bitCount(flips);
 	}
 
 
 	/**
-	 * Task 5: Implement this method
+	 * Task 5
 	 * @param row row of the move
 	 * @param col column of the move
 	 * @return true if the move was played, false if it failed to be played
 	 */
 	public boolean placeDisk(int row, int col) {
-		// Keep this print. It will help you debug your code
-		System.out.println("Place disk: " + this.curPlayer + " at row: " + row + " column: " + col);
+		// Keep this event. By default it prints the move, which will help you debug your code
+		this.listener.placingDisk(this.curPlayer, row, col);
 
-		return false;
+		if (!isOnBoard(row, col)) {
+			return false;
+		}
+		return this.wide != null ? makeWideMove(row, col, true) : makeBitboardMove(Bitboard.square(row, col), true);
 	}
 
 //  ================================================================================  END OF PART A  =============================================================================== ======================================== ========================================
@@ -128,25 +436,116 @@ public class ReversiGame {
 //  ================================================================================  START PART 2A  =============================================================================== ======================================== ========================================
 
 	/**
-	 * Task 7: Implement this method
+	 * Task 7
 	 * @param player - the player that is making the move
 	 * @param row - the row of the move
 	 * @param col - the column of the move
 	 * @return the number of flips as a result of the move
 	 */
-	private int calcMoveFlips(int player, int row, int col) {
-		return 0;
+	int calcMoveFlips(int player, int row, int col) {
+		if (!isOnBoard(row, col)) {
+			return 0;
+		}
+		if (this.wide != null) {
+			return this.wide.calcMoveFlips(player, row, col);
+		}
+		syncDisks();
+		int square = Bitboard.square(row, col);
+		long own = this.disks[player];
+		long opp = this.disks[opponentPlayer(player)];
+		if (((own | opp) & (1L << square)) != 0) {
+			return 0;
+		}
+		return Long.bitCount(Bitboard.flips(own, opp, square));
 	}
 
 	/**
-	 * Task 8: Implement this method
+	 * Task 8
 	 *
 	 * @return an array of all possible moves for the current player (the array
 	 *         doesn't contain nulls). If there are no possible moves, return an
 	 *         empty array. For each MoveScore the score will the number of flips
 	 */
 	public MoveScore[] getPossibleMoves(int player) {
-		return null;
+		if (this.wide != null) {
+			int count = this.wide.getPossibleMoves(player, this.moveBuffer);
+			MoveScore[] possibleMoves = new MoveScore[count];
+			for (int i = 0; i < count; i++) {
+				int square = PackedMove.square(this.moveBuffer[i]);
+				possibleMoves[i] = new MoveScore(square / this.size, square % this.size, PackedMove.flips(this.moveBuffer[i]));
+			}
+			return possibleMoves;
+		}
+		int count = getPossibleMoves(player, this.moveBuffer);
+		MoveScore[] possibleMoves = new MoveScore[count];
+		for (int i = 0; i < count; i++) {
+			possibleMoves[i] = PackedMove.toMoveScore(this.moveBuffer[i]);
+		}
+		return possibleMoves;
+	}
+
+	/**
+	 * Allocation-free version of {@link #getPossibleMoves(int)}. Writes the moves into the given buffer as
+	 * {@link PackedMove}s, ordered by square.
+	 *
+	 * @param moves a buffer of at least {@link #MOVE_BUFFER_SIZE} elements, which can be reused between calls
+	 * @return the number of moves written into the buffer
+	 */
+	public int getPossibleMoves(int player, int[] moves) {
+		requireBitboard();
+		syncDisks();
+		long own = this.disks[player];
+		long opp = this.disks[opponentPlayer(player)];
+		long moveMask = moves(player);
+		int count = 0;
+		while (moveMask != 0) {
+			int square = Long.numberOfTrailingZeros(moveMask);
+			moves[count++] = PackedMove.pack(square, Long.bitCount(Bitboard.flips(own, opp, square)));
+			moveMask &= moveMask - 1;
+		}
+		return count;
+	}
+
+	/**
+	 * @return a mask of the squares the player can play on (see {@link Bitboard}), without computing the flips
+	 */
+	public long getMoveMask(int player) {
+		requireBitboard();
+		syncDisks();
+		return moves(player);
+	}
+
+	/**
+	 * @return the number of legal moves of the player
+	 */
+	public int getMobility(int player) {
+		if (this.wide != null) {
+			return this.wide.getMobility(player);
+		}
+		syncDisks();
+		return Long.bitCount(moves(player));
+	}
+
+	/**
+	 * @return the number of disks of the player on the board
+	 */
+	public int getDiskCount(int player) {
+		if (this.wide != null) {
+			return this.wide.getDiskCount(player);
+		}
+		syncDisks();
+		return this.diskCounts[player];
+	}
+
+	/**
+	 * @return the number of empty squares
+	 */
+	public int getEmptyCount() {
+		if (this.wide != null) {
+			return this.wide.getEmptyCount();
+		}
+		syncDisks();
+		return Bitboard.SQUARES - this.diskCounts[PLAYER_ONE] - this.diskCounts[PLAYER_TWO];
 	}
 
 	/**
@@ -157,32 +556,203 @@ public class ReversiGame {
 	}
 
 	/**
-	 * Task 9: Implement this method
+	 * Task 9
 	 *
 	 * A game is over if none of the players have a move to play (i.e. no empty
 	 * squares left on the board or none of the players have a valid move)
 	 * @return true if the game is over, false otherwise
 	 */
 	public boolean isGameOver() {
-		return false;
+		if (this.wide != null) {
+			return this.wide.getMobility(PLAYER_ONE) == 0 && this.wide.getMobility(PLAYER_TWO) == 0;
+		}
+		syncDisks();
+		return moves(this.curPlayer) == 0 && moves(opponentPlayer(this.curPlayer)) == 0;
 	}
 
 	/**
-	 * Task 10: Implement this method
+	 * Task 10
 	 * Switches to the opponent player. If there's no move for the opponent player to play, the current player remains the same
 	 * @return the current player after the switch
 	 */
 	public int switchToNextPlayablePlayer() {
-		return PLAYER_ONE;
+		int opponent = opponentPlayer(this.curPlayer);
+		if (this.wide != null) {
+			if (this.wide.getMobility(opponent) != 0) {
+				this.curPlayer = opponent;
+			}
+			return this.curPlayer;
+		}
+		syncDisks();
+		if (moves(opponent) != 0) {
+			setCurPlayer(opponent);
+		}
+		return this.curPlayer;
 	}
 
 
 	/**
-	 * Task 11: Implement this method
+	 * Task 11
 	 * A player wins if the game is over and the player has more pieces on the board than the opponent
 	 * @return -1 if the game is not over, 0 for tie, 1 if player 1 wins, 2 if player 2 wins
 	 */
 	public int getWinner() {
-		return PLAYER_ONE;
+		if (!isGameOver()) {
+			return -1;
+		}
+		int playerOneDisks = getDiskCount(PLAYER_ONE);
+		int playerTwoDisks = getDiskCount(PLAYER_TWO);
+		if (playerOneDisks == playerTwoDisks) {
+			return 0;
+		}
+		return playerOneDisks > playerTwoDisks ? PLAYER_ONE : PLAYER_TWO;
+	}
+
+//  ================================================================================  SEARCH SUPPORT  =============================================================================== ======================================== ========================================
+
+	/**
+	 * Plays a move for the current player, like {@link #placeDisk(int, int)} but without telling the listener about
+	 * it, and remembers it so it can be taken back with {@link #undoMove()}. Searches play their moves with this.
+	 * @return true if the move was played, false if it's not a legal move
+	 */
+	public boolean makeMove(int row, int col) {
+		if (this.wide != null) {
+			return isOnBoard(row, col) && makeWideMove(row, col, false);
+		}
+		return isOnBoard(row, col) && makeBitboardMove(Bitboard.square(row, col), false);
+	}
+
+	/**
+	 * Same as {@link #makeMove(int, int)} with the square given as {@code row * size + col}.
+	 */
+	public boolean makeMove(int square) {
+		if (this.wide != null) {
+			return square >= 0 && square < this.size * this.size
+					&& makeWideMove(square / this.size, square % this.size, false);
+		}
+		return square >= 0 && square < Bitboard.SQUARES && makeBitboardMove(square, false);
+	}
+
+	/**
+	 * @param notify whether to tell the listener about the move, and the pass or game over it leads to
+	 */
+	private boolean makeBitboardMove(int square, boolean notify) {
+		syncDisks();
+		int player = this.curPlayer;
+		long own = this.disks[player];
+		long opp = this.disks[opponentPlayer(player)];
+		long squareBit = 1L << square;
+		if ((moves(player) & squareBit) == 0) {
+			return false;
+		}
+		long flips = Bitboard.flips(own, opp, square);
+		this.undoSquares[this.undoCount] = square;
+		this.undoFlips[this.undoCount] = flips;
+		this.undoPlayers[this.undoCount] = player;
+		this.undoMoveMasks[2 * this.undoCount] = this.moveMasks[PLAYER_ONE];
+		this.undoMoveMasks[2 * this.undoCount + 1] = this.moveMasks[PLAYER_TWO];
+		this.undoValidMoveMasks[this.undoCount] = this.validMoveMasks;
+		this.undoCount++;
+		setDisks(player, flips | squareBit);
+		switchToNextPlayablePlayer();
+		if (notify) {
+			movePlayed(player, Bitboard.row(square), Bitboard.col(square), Long.bitCount(flips));
+		}
+		return true;
+	}
+
+	private boolean makeWideMove(int row, int col, boolean notify) {
+		int player = this.curPlayer;
+		int flips = this.wide.makeMove(player, row, col);
+		if (flips < 0) {
+			return false;
+		}
+		switchToNextPlayablePlayer();
+		if (notify) {
+			movePlayed(player, row, col, flips);
+		}
+		return true;
+	}
+
+	/**
+	 * Tells the listener about a move that was just played, and the pass or game over it led to.
+	 */
+	private void movePlayed(int player, int row, int col, int flips) {
+		this.listener.movePlayed(player, row, col, flips);
+		if (this.curPlayer == player) {
+			// The opponent can't move: either it passes or nobody can move
+			if (getMobility(player) != 0) {
+				this.listener.passed(opponentPlayer(player));
+			} else {
+				this.listener.gameOver(getWinner());
+			}
+		}
+	}
+
+	/**
+	 * Takes back the last move played by {@link #makeMove(int)} or {@link #placeDisk(int, int)}: the disk is
+	 * removed, the flipped disks are flipped back and the player who played the move is to move again.
+	 * The history is cleared if the board is changed through {@link #getBoard()}.
+	 * @return true if a move was taken back, false if there was no move to undo
+	 */
+	public boolean undoMove() {
+		if (this.wide != null) {
+			int player = this.wide.undoMove();
+			if (player == 0) {
+				return false;
+			}
+			this.curPlayer = player;
+			return true;
+		}
+		syncDisks();
+		if (this.undoCount == 0) {
+			return false;
+		}
+		this.undoCount--;
+		int square = this.undoSquares[this.undoCount];
+		int player = this.undoPlayers[this.undoCount];
+		setDisks(opponentPlayer(player), this.undoFlips[this.undoCount]);
+		this.disks[player] &= ~(1L << square);
+		this.diskCounts[player]--;
+		this.hash ^= Zobrist.diskKey(player, square);
+		this.board[Bitboard.row(square)][Bitboard.col(square)] = 0;
+		this.moveMasks[PLAYER_ONE] = this.undoMoveMasks[2 * this.undoCount];
+		this.moveMasks[PLAYER_TWO] = this.undoMoveMasks[2 * this.undoCount + 1];
+		this.validMoveMasks = this.undoValidMoveMasks[this.undoCount];
+		setCurPlayer(player);
+		return true;
+	}
+
+	/**
+	 * @return the disks of the given player as a mask (see {@link Bitboard})
+	 */
+	public long getDisks(int player) {
+		requireBitboard();
+		syncDisks();
+		return this.disks[player];
+	}
+
+	/**
+	 * @return the {@link Zobrist} hash of the position, including the player to move
+	 */
+	public long getHash() {
+		requireBitboard();
+		syncDisks();
+		return this.hash;
+	}
+
+	/**
+	 * @return the disks flipped by the last move that can be taken back, as a mask, or 0 if there is none
+	 */
+	public long getLastMoveFlips() {
+		requireBitboard();
+		return this.undoCount == 0 ? 0 : this.undoFlips[this.undoCount - 1];
+	}
+
+	/**
+	 * @return the number of moves that can be taken back with {@link #undoMove()}
+	 */
+	public int getUndoDepth() {
+		return this.wide != null ? this.wide.getUndoDepth() : this.undoCount;
 	}
 }
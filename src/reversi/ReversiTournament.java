@@ -0,0 +1,333 @@
+package reversi;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Runs a round robin tournament between all the bots on the classpath.
+ *
+ * Every class whose name ends with "Bot", implements {@link ReversiBot} and has a constructor taking a
+ * {@link ReversiGame} takes part. Every pair of bots plays the given number of games with each bot as player one.
+ * Games are independent (each has its own game and bot instances), so they run in parallel on a work-stealing pool
+ * with one thread per core. The {@link AlphaBetaBot}s of a thread's games share one transposition table.
+ *
+ * Bots are called through a {@link TimeControl}: a bot that goes over the per-move or per-game time limit loses the
+ * game, so a slow or stuck bot can't hold up the tournament.
+ *
+ * If a record file is given, every game is appended to it as a {@link GameRecord} as soon as it's over.
+ *
+ * Usage: {@code java reversi.ReversiTournament [gamesPerColour] [threads] [moveLimitMillis] [gameLimitMillis] [recordFile]}
+ */
+public class ReversiTournament {
+	public static final int DEFAULT_GAMES_PER_COLOUR = 2;
+	public static final long DEFAULT_MOVE_LIMIT_MILLIS = 1000;
+	public static final long DEFAULT_GAME_LIMIT_MILLIS = 30_000;
+
+	/** The tables reused by the AlphaBetaBots of each thread, instead of allocating two per game. */
+	private static final ThreadLocal<TranspositionTable> TABLES = ThreadLocal.withInitial(TranspositionTable::new);
+
+	/**
+	 * A bot taking part in the tournament and its results so far.
+	 */
+	static class Entry {
+		final String name;
+		final Constructor<? extends ReversiBot> constructor;
+		int wins;
+		int losses;
+		int ties;
+		int forfeits;
+		int timeouts;
+		final LatencyHistogram latencies = new LatencyHistogram();
+
+		Entry(Constructor<? extends ReversiBot> constructor) {
+			this.name = constructor.getDeclaringClass().getSimpleName();
+			this.constructor = constructor;
+		}
+
+		ReversiBot create(ReversiGame game) throws ReflectiveOperationException {
+			if (this.constructor.getDeclaringClass() == AlphaBetaBot.class) {
+				return new AlphaBetaBot(game, AlphaBetaBot.DEFAULT_TIME_BUDGET_MILLIS, TABLES.get());
+			}
+			return this.constructor.newInstance(game);
+		}
+
+		double points() {
+			return this.wins + this.ties / 2.0;
+		}
+	}
+
+	/**
+	 * The outcome of a single game.
+	 */
+	static class GameResult {
+		final Entry playerOne;
+		final Entry playerTwo;
+		/** Same as {@link ReversiGame#getWinner()}: 0 for a tie, otherwise the winning player. */
+		final int winner;
+		/** The player that lost by returning an illegal move, throwing or running out of time, 0 if the game was played out. */
+		final int forfeited;
+		final boolean timedOut;
+		/** How long each bot took for its moves, indexed by player number. */
+		final LatencyHistogram[] latencies;
+		final GameRecord record;
+
+		GameResult(Entry playerOne, Entry playerTwo, int winner, int forfeited, boolean timedOut,
+				LatencyHistogram[] latencies, int[] moves, int moveCount) {
+			this.playerOne = playerOne;
+			this.playerTwo = playerTwo;
+			this.winner = winner;
+			this.forfeited = forfeited;
+			this.timedOut = timedOut;
+			this.latencies = latencies;
+			this.record = new GameRecord(playerOne.name, playerTwo.name, winner, forfeited, moves, moveCount);
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+		int gamesPerColour = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES_PER_COLOUR;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long moveLimitMillis = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MOVE_LIMIT_MILLIS;
+		long gameLimitMillis = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_GAME_LIMIT_MILLIS;
+		GameRecordWriter recordWriter = args.length > 4 ? new GameRecordWriter(Paths.get(args[4])) : null;
+
+		List<Entry> entries = new ArrayList<>();
+		for (Constructor<? extends ReversiBot> constructor : findBots()) {
+			entries.add(new Entry(constructor));
+		}
+		System.out.println("Found " + entries.size() + " bots, playing " + gamesPerColour
+				+ " games per pairing and colour on " + threads + " threads, " + moveLimitMillis + "ms per move, "
+				+ gameLimitMillis + "ms per game");
+
+		Path metricsFile = Metrics.startDumpingFromProperties();
+		long start = System.nanoTime();
+		List<GameResult> results;
+		try {
+			results = playRoundRobin(entries, gamesPerColour, threads, moveLimitMillis, gameLimitMillis, recordWriter);
+		} finally {
+			if (recordWriter != null) {
+				recordWriter.close();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		for (GameResult result : results) {
+			record(result);
+		}
+		printStandings(entries);
+		System.out.printf("%d games in %.1f seconds (%.1f games/sec)%n", results.size(), seconds, results.size() / seconds);
+		if (metricsFile != null) {
+			Metrics.stopDumping();
+			Metrics.dump(metricsFile);
+			System.out.println("Metrics written to " + metricsFile);
+		}
+	}
+
+	/**
+	 * Plays every pairing of the entries, both colours, the given number of games each.
+	 * @param recordWriter where to record the games, or null to not record them
+	 * @return the results, in no particular order
+	 */
+	static List<GameResult> playRoundRobin(List<Entry> entries, int gamesPerColour, int threads,
+			long moveLimitMillis, long gameLimitMillis, GameRecordWriter recordWriter)
+			throws InterruptedException, ExecutionException {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<Future<GameResult>> futures = new ArrayList<>();
+			for (Entry playerOne : entries) {
+				for (Entry playerTwo : entries) {
+					if (playerOne == playerTwo) {
+						continue;
+					}
+					for (int i = 0; i < gamesPerColour; i++) {
+						futures.add(pool.submit(() -> {
+							GameResult result = playGame(playerOne, playerTwo, moveLimitMillis, gameLimitMillis);
+							if (recordWriter != null) {
+								recordWriter.write(result.record);
+							}
+							return result;
+						}));
+					}
+				}
+			}
+			List<GameResult> results = new ArrayList<>(futures.size());
+			for (Future<GameResult> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Plays a game between new instances of the two bots on a new game, under the given time limits.
+	 * A bot that returns an illegal move, throws or runs out of time loses the game.
+	 */
+	static GameResult playGame(Entry playerOne, Entry playerTwo, long moveLimitMillis, long gameLimitMillis)
+			throws InterruptedException {
+		ReversiGame game = new ReversiGame();
+		TimeControl[] bots = new TimeControl[3];
+		LatencyHistogram[] latencies = {null, new LatencyHistogram(), new LatencyHistogram()};
+		int[] moves = new int[Bitboard.SQUARES];
+		int moveCount = 0;
+		try {
+			for (int player = ReversiGame.PLAYER_ONE; player <= ReversiGame.PLAYER_TWO; player++) {
+				Entry entry = player == ReversiGame.PLAYER_ONE ? playerOne : playerTwo;
+				try {
+					bots[player] = new TimeControl(entry.create(game), moveLimitMillis, gameLimitMillis);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					return new GameResult(playerOne, playerTwo, ReversiGame.opponentPlayer(player), player, false, latencies, moves, moveCount);
+				}
+				latencies[player] = bots[player].getLatencies();
+			}
+
+			while (!game.isGameOver()) {
+				int player = game.getCurPlayer();
+				MoveScore move;
+				try {
+					move = bots[player].getNextMove();
+				} catch (TimeoutException e) {
+					return new GameResult(playerOne, playerTwo, ReversiGame.opponentPlayer(player), player, true, latencies, moves, moveCount);
+				} catch (RuntimeException e) {
+					move = null;
+				}
+				if (move == null || !game.makeMove(move.getRow(), move.getColumn())) {
+					return new GameResult(playerOne, playerTwo, ReversiGame.opponentPlayer(player), player, false, latencies, moves, moveCount);
+				}
+				moves[moveCount++] = Bitboard.square(move.getRow(), move.getColumn());
+			}
+			return new GameResult(playerOne, playerTwo, game.getWinner(), 0, false, latencies, moves, moveCount);
+		} finally {
+			for (TimeControl bot : bots) {
+				if (bot != null) {
+					bot.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the outcome and latencies of a game to the results of its two entries.
+	 */
+	static void record(GameResult result) {
+		result.playerOne.latencies.add(result.latencies[ReversiGame.PLAYER_ONE]);
+		result.playerTwo.latencies.add(result.latencies[ReversiGame.PLAYER_TWO]);
+		if (result.winner == 0) {
+			result.playerOne.ties++;
+			result.playerTwo.ties++;
+			return;
+		}
+		Entry winner = result.winner == ReversiGame.PLAYER_ONE ? result.playerOne : result.playerTwo;
+		Entry loser = result.winner == ReversiGame.PLAYER_ONE ? result.playerTwo : result.playerOne;
+		winner.wins++;
+		loser.losses++;
+		if (result.forfeited != 0) {
+			loser.forfeits++;
+		}
+		if (result.timedOut) {
+			loser.timeouts++;
+		}
+	}
+
+	/**
+	 * @return the entries ordered by points, best first
+	 */
+	static List<Entry> standings(List<Entry> entries) {
+		List<Entry> standings = new ArrayList<>(entries);
+		standings.sort(Comparator.comparingDouble(Entry::points).reversed());
+		return standings;
+	}
+
+	private static void printStandings(List<Entry> entries) {
+		List<Entry> standings = standings(entries);
+		System.out.printf("%-4s %-30s %7s %5s %6s %5s %8s %8s %9s %9s %9s%n", "#", "Bot", "Points", "Wins", "Losses",
+				"Ties", "Forfeits", "Timeouts", "p50 (ms)", "p99 (ms)", "max (ms)");
+		for (int i = 0; i < standings.size(); i++) {
+			Entry entry = standings.get(i);
+			System.out.printf("%-4d %-30s %7.1f %5d %6d %5d %8d %8d %9.2f %9.2f %9.2f%n", i + 1, entry.name,
+					entry.points(), entry.wins, entry.losses, entry.ties, entry.forfeits, entry.timeouts,
+					entry.latencies.getValueAtPercentile(50) / 1e6, entry.latencies.getValueAtPercentile(99) / 1e6,
+					entry.latencies.getMax() / 1e6);
+		}
+	}
+
+	/**
+	 * Scans the classpath (directories and jars) for bot classes.
+	 * @return the {@code (ReversiGame)} constructors of all the bots, ordered by class name
+	 */
+	static List<Constructor<? extends ReversiBot>> findBots() {
+		List<String> classNames = new ArrayList<>();
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			File file = new File(path);
+			try {
+				if (file.isDirectory()) {
+					addClassNames(file.toPath(), classNames);
+				} else if (file.getName().endsWith(".jar")) {
+					addClassNames(file, classNames);
+				}
+			} catch (IOException e) {
+				System.err.println("Skipping " + path + ": " + e.getMessage());
+			}
+		}
+		classNames.sort(null);
+
+		List<Constructor<? extends ReversiBot>> bots = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				Class<?> type = Class.forName(className, false, ReversiTournament.class.getClassLoader());
+				if (!ReversiBot.class.isAssignableFrom(type) || type.isInterface()
+						|| Modifier.isAbstract(type.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+					continue;
+				}
+				bots.add(type.asSubclass(ReversiBot.class).getConstructor(ReversiGame.class));
+			} catch (ClassNotFoundException | LinkageError | NoSuchMethodException e) {
+				// Not a bot we can use
+			}
+		}
+		return bots;
+	}
+
+	private static void addClassNames(Path root, List<String> classNames) throws IOException {
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.map(path -> root.relativize(path).toString().replace(File.separatorChar, '/'))
+					.filter(ReversiTournament::isBotClassFile)
+					.forEach(name -> classNames.add(toClassName(name)));
+		}
+	}
+
+	private static void addClassNames(File jar, List<String> classNames) throws IOException {
+		try (JarFile jarFile = new JarFile(jar)) {
+			Enumeration<JarEntry> jarEntries = jarFile.entries();
+			while (jarEntries.hasMoreElements()) {
+				String name = jarEntries.nextElement().getName();
+				if (isBotClassFile(name)) {
+					classNames.add(toClassName(name));
+				}
+			}
+		}
+	}
+
+	private static boolean isBotClassFile(String name) {
+		return name.endsWith("Bot.class") && !name.contains("$");
+	}
+
+	private static String toClassName(String classFile) {
+		return classFile.substring(0, classFile.length() - ".class".length()).replace('/', '.');
+	}
+}
@@ -0,0 +1,210 @@
+package reversi;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Generates training data for the evaluation weights: plays games of a bot against itself on all the cores and
+ * writes every position with the game's final disk difference to a {@link TrainingDataWriter}.
+ *
+ * The first moves of every game are random, so the games differ even with a deterministic bot. Only the positions
+ * after the random moves are written.
+ *
+ * Usage: {@code java reversi.SelfPlay <data file> [games=10000] [threads=cores] [randomPlies=8] [moveMillis=10]
+ * [botClass=reversi.AlphaBetaBot]}. The bot class needs a {@code (ReversiGame, long)} constructor taking the time
+ * per move, or a {@code (ReversiGame)} constructor. Positions are appended if the file exists. Fit weights to the
+ * file with {@link WeightTrainer}.
+ */
+public class SelfPlay {
+	public static final int DEFAULT_GAMES = 10_000;
+	public static final int DEFAULT_RANDOM_PLIES = 8;
+	public static final long DEFAULT_MOVE_MILLIS = 10;
+	/** The transposition table size of each thread when self-playing {@link AlphaBetaBot}. */
+	private static final int TABLE_SIZE_MB = 4;
+	private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+
+	private final Function<ReversiGame, ReversiBot> botFactory;
+	private final int randomPlies;
+	private final AtomicLong games = new AtomicLong();
+	private final AtomicLong skippedGames = new AtomicLong();
+
+	/**
+	 * @param botFactory creates a bot for a player of the given game. Called on the playing threads.
+	 * @param randomPlies the number of random moves at the start of each game
+	 */
+	public SelfPlay(Function<ReversiGame, ReversiBot> botFactory, int randomPlies) {
+		this.botFactory = botFactory;
+		this.randomPlies = randomPlies;
+	}
+
+	/**
+	 * Plays the games and writes their positions.
+	 * @param seed the seed of the random opening moves
+	 */
+	public void play(int games, int threads, long seed, TrainingDataWriter writer)
+			throws InterruptedException, ExecutionException {
+		AtomicInteger nextGame = new AtomicInteger();
+		SplittableRandom seeds = new SplittableRandom(seed);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<Future<Void>> workers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				SplittableRandom random = seeds.split();
+				workers.add(pool.submit(() -> {
+					Worker worker = new Worker(random);
+					while (nextGame.getAndIncrement() < games) {
+						worker.playGame(writer);
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * @return the number of games played and written so far
+	 */
+	public long getGames() {
+		return this.games.get();
+	}
+
+	/**
+	 * @return the number of games dropped because the bot failed to return a legal move
+	 */
+	public long getSkippedGames() {
+		return this.skippedGames.get();
+	}
+
+	/**
+	 * The state of one playing thread.
+	 */
+	private class Worker {
+		private final SplittableRandom random;
+		private final int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		private final long[] playerOneDisks = new long[Bitboard.SQUARES];
+		private final long[] playerTwoDisks = new long[Bitboard.SQUARES];
+		private final int[] players = new int[Bitboard.SQUARES];
+
+		Worker(SplittableRandom random) {
+			this.random = random;
+		}
+
+		void playGame(TrainingDataWriter writer) throws IOException {
+			ReversiGame game = new ReversiGame();
+			game.setListener(GameListener.NONE);
+			ReversiBot[] bots = {null, SelfPlay.this.botFactory.apply(game), SelfPlay.this.botFactory.apply(game)};
+			int count = 0;
+			for (int ply = 0; !game.isGameOver(); ply++) {
+				int player = game.getCurPlayer();
+				if (ply < SelfPlay.this.randomPlies) {
+					int moveCount = game.getPossibleMoves(player, this.moves);
+					game.makeMove(PackedMove.square(this.moves[this.random.nextInt(moveCount)]));
+					continue;
+				}
+				this.playerOneDisks[count] = game.getDisks(ReversiGame.PLAYER_ONE);
+				this.playerTwoDisks[count] = game.getDisks(ReversiGame.PLAYER_TWO);
+				this.players[count++] = player;
+				MoveScore move = bots[player].getNextMove();
+				if (move == null || !game.makeMove(move.getRow(), move.getColumn())) {
+					SelfPlay.this.skippedGames.incrementAndGet();
+					return;
+				}
+			}
+			int diskDifference = Long.bitCount(game.getDisks(ReversiGame.PLAYER_ONE))
+					- Long.bitCount(game.getDisks(ReversiGame.PLAYER_TWO));
+			writer.writeGame(this.playerOneDisks, this.playerTwoDisks, this.players, count, diskDifference);
+			SelfPlay.this.games.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return a factory for the named bot class, see the class comment
+	 */
+	static Function<ReversiGame, ReversiBot> botFactory(String className, long moveMillis)
+			throws ReflectiveOperationException {
+		Class<? extends ReversiBot> type = Class.forName(className).asSubclass(ReversiBot.class);
+		if (type == AlphaBetaBot.class) {
+			// Both players of a thread's games share one table instead of allocating one per bot
+			ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_SIZE_MB));
+			return game -> new AlphaBetaBot(game, moveMillis, tables.get());
+		}
+		Constructor<? extends ReversiBot> timed;
+		try {
+			timed = type.getConstructor(ReversiGame.class, long.class);
+		} catch (NoSuchMethodException e) {
+			timed = null;
+		}
+		Constructor<? extends ReversiBot> constructor = timed != null ? timed : type.getConstructor(ReversiGame.class);
+		return game -> {
+			try {
+				return constructor.getParameterCount() == 2 ? constructor.newInstance(game, moveMillis)
+						: constructor.newInstance(game);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Failed to create " + className, e);
+			}
+		};
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: java reversi.SelfPlay <data file> [games] [threads] [randomPlies] [moveMillis] [botClass]");
+			System.exit(1);
+		}
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int randomPlies = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RANDOM_PLIES;
+		long moveMillis = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_MOVE_MILLIS;
+		String botClass = args.length > 5 ? args[5] : AlphaBetaBot.class.getName();
+
+		SelfPlay selfPlay = new SelfPlay(botFactory(botClass, moveMillis), randomPlies);
+		System.out.println("Playing " + games + " games of " + botClass + " on " + threads + " threads, "
+				+ randomPlies + " random moves, " + moveMillis + "ms per move");
+		long start = System.nanoTime();
+		try (TrainingDataWriter writer = new TrainingDataWriter(Paths.get(args[0]))) {
+			Thread progress = new Thread(() -> {
+				try {
+					while (true) {
+						Thread.sleep(PROGRESS_INTERVAL_NANOS / 1_000_000);
+						printThroughput(selfPlay, writer, start);
+					}
+				} catch (InterruptedException e) {
+					// Done
+				}
+			});
+			progress.setDaemon(true);
+			progress.start();
+			try {
+				selfPlay.play(games, threads, System.nanoTime(), writer);
+			} finally {
+				progress.interrupt();
+			}
+			printThroughput(selfPlay, writer, start);
+		}
+		if (selfPlay.getSkippedGames() > 0) {
+			System.out.println(selfPlay.getSkippedGames() + " games skipped after an illegal or missing move");
+		}
+	}
+
+	private static void printThroughput(SelfPlay selfPlay, TrainingDataWriter writer, long start) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long positions = writer.getPositions();
+		System.out.printf("%d games, %d positions in %.1f seconds (%.1f games/sec, %.0f positions/sec, %.2f MB/sec)%n",
+				selfPlay.getGames(), positions, seconds, selfPlay.getGames() / seconds, positions / seconds,
+				positions * TrainingDataWriter.RECORD_BYTES / seconds / 1e6);
+	}
+}
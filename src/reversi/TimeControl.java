@@ -0,0 +1,89 @@
+package reversi;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calls a bot's {@link ReversiBot#getNextMove()} under a per-move and a per-game time limit, and records how long
+ * every call took.
+ *
+ * Each call runs on a thread of its own, so the caller gets control back when the limit is reached even if the bot
+ * never returns. The bot's thread is interrupted at that point; a bot that ignores interrupts keeps its thread busy
+ * until it returns, but the game doesn't wait for it. Call {@link #close()} when the game is over.
+ */
+public class TimeControl implements AutoCloseable {
+	private final ReversiBot bot;
+	private final long moveLimitNanos;
+	private long remainingGameNanos;
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "bot-move");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * @param moveLimitMillis the time each move may take
+	 * @param gameLimitMillis the total time all the moves of the game may take
+	 */
+	public TimeControl(ReversiBot bot, long moveLimitMillis, long gameLimitMillis) {
+		this.bot = bot;
+		this.moveLimitNanos = TimeUnit.MILLISECONDS.toNanos(moveLimitMillis);
+		this.remainingGameNanos = TimeUnit.MILLISECONDS.toNanos(gameLimitMillis);
+	}
+
+	/**
+	 * @return the bot's move
+	 * @throws TimeoutException if the bot ran out of time for this move or for the game
+	 * @throws RuntimeException whatever the bot threw
+	 */
+	public MoveScore getNextMove() throws TimeoutException, InterruptedException {
+		long limit = Math.min(this.moveLimitNanos, this.remainingGameNanos);
+		long start = System.nanoTime();
+		Future<MoveScore> future = this.executor.submit(this.bot::getNextMove);
+		try {
+			return future.get(limit, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw e;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			this.latencies.record(elapsed);
+			if (Metrics.ENABLED) {
+				Metrics.recordMove(this.bot.getClass().getSimpleName(), elapsed);
+			}
+			this.remainingGameNanos -= elapsed;
+		}
+	}
+
+	/**
+	 * @return the durations of all the calls so far, in nanoseconds
+	 */
+	public LatencyHistogram getLatencies() {
+		return this.latencies;
+	}
+
+	/**
+	 * @return the time left on the game clock, in milliseconds
+	 */
+	public long getRemainingGameMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.remainingGameNanos);
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+}
@@ -0,0 +1,102 @@
+package reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only training data file written by {@link TrainingDataWriter}, mapped into memory. Positions are read
+ * straight from the mapped bytes by index, so files larger than memory can be scanned in any order. Files over 2GB
+ * are mapped in several segments.
+ *
+ * Reads are thread safe.
+ */
+public final class TrainingData implements Closeable {
+	/** The number of records in each mapped segment, so that a segment stays under 2GB. */
+	static final int SEGMENT_RECORDS = Integer.MAX_VALUE / TrainingDataWriter.RECORD_BYTES;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final long size;
+
+	private TrainingData(FileChannel channel, MappedByteBuffer[] segments, long size) {
+		this.channel = channel;
+		this.segments = segments;
+		this.size = size;
+	}
+
+	public static TrainingData open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long fileSize = channel.size();
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, TrainingDataWriter.HEADER_BYTES));
+			if (fileSize < TrainingDataWriter.HEADER_BYTES || header.getInt(0) != TrainingDataWriter.MAGIC) {
+				throw new IOException(file + " is not a training data file");
+			}
+			if (header.getInt(4) != TrainingDataWriter.VERSION) {
+				throw new IOException(file + " has unsupported training data version " + header.getInt(4));
+			}
+			// A partly written last record is ignored
+			long size = (fileSize - TrainingDataWriter.HEADER_BYTES) / TrainingDataWriter.RECORD_BYTES;
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+			for (int i = 0; i < segments.length; i++) {
+				long first = (long) i * SEGMENT_RECORDS;
+				long records = Math.min(SEGMENT_RECORDS, size - first);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						TrainingDataWriter.HEADER_BYTES + first * TrainingDataWriter.RECORD_BYTES,
+						records * TrainingDataWriter.RECORD_BYTES);
+				segments[i].order(ByteOrder.BIG_ENDIAN);
+			}
+			return new TrainingData(channel, segments, size);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of positions in the file
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	public long getPlayerOneDisks(long position) {
+		return segment(position).getLong(offset(position));
+	}
+
+	public long getPlayerTwoDisks(long position) {
+		return segment(position).getLong(offset(position) + 8);
+	}
+
+	/**
+	 * @return the player to move in the position
+	 */
+	public int getPlayer(long position) {
+		return segment(position).get(offset(position) + 16);
+	}
+
+	/**
+	 * @return player one's disks minus player two's at the end of the position's game
+	 */
+	public int getDiskDifference(long position) {
+		return segment(position).get(offset(position) + 17);
+	}
+
+	private MappedByteBuffer segment(long position) {
+		return this.segments[(int) (position / SEGMENT_RECORDS)];
+	}
+
+	private static int offset(long position) {
+		return (int) (position % SEGMENT_RECORDS) * TrainingDataWriter.RECORD_BYTES;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,95 @@
+package reversi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends labelled positions to a training data file. Positions are collected in memory and appended to the file in
+ * batches, so writing a game costs no I/O most of the time. Safe to use from several threads.
+ *
+ * File format (big endian): the magic number and the format version (4 bytes each), then fixed-size records of
+ * {@link #RECORD_BYTES} bytes: player one's disks and player two's disks (8 bytes each, see {@link Bitboard}), the
+ * player to move and the final disk difference of the game (player one's disks minus player two's, 1 byte each).
+ * Read the files with {@link TrainingData}.
+ */
+public class TrainingDataWriter implements Closeable {
+	static final int MAGIC = 0x52565444; // "RVTD"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 8;
+	static final int RECORD_BYTES = 18;
+	public static final int DEFAULT_BATCH_BYTES = 1024 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer batch;
+	private long positions;
+
+	public TrainingDataWriter(Path file) throws IOException {
+		this(file, DEFAULT_BATCH_BYTES);
+	}
+
+	/**
+	 * Opens the file for appending, creating it if needed.
+	 * @param batchBytes the positions are appended to the file once this many bytes are waiting
+	 */
+	public TrainingDataWriter(Path file, int batchBytes) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.batch = ByteBuffer.allocate(Math.max(batchBytes, HEADER_BYTES + Bitboard.SQUARES * RECORD_BYTES));
+		if (this.channel.size() == 0) {
+			this.batch.putInt(MAGIC);
+			this.batch.putInt(VERSION);
+		}
+	}
+
+	/**
+	 * Writes the positions of one game, all labelled with the game's result.
+	 * @param playerOneDisks player one's disks in each position
+	 * @param playerTwoDisks player two's disks in each position
+	 * @param players the player to move in each position
+	 * @param count the number of positions
+	 * @param diskDifference player one's disks minus player two's at the end of the game
+	 */
+	public synchronized void writeGame(long[] playerOneDisks, long[] playerTwoDisks, int[] players, int count,
+			int diskDifference) throws IOException {
+		for (int i = 0; i < count; i++) {
+			if (this.batch.remaining() < RECORD_BYTES) {
+				flush();
+			}
+			this.batch.putLong(playerOneDisks[i]);
+			this.batch.putLong(playerTwoDisks[i]);
+			this.batch.put((byte) players[i]);
+			this.batch.put((byte) diskDifference);
+		}
+		this.positions += count;
+	}
+
+	/**
+	 * @return the number of positions written so far
+	 */
+	public synchronized long getPositions() {
+		return this.positions;
+	}
+
+	/**
+	 * Appends the positions waiting in memory to the file.
+	 */
+	public synchronized void flush() throws IOException {
+		this.batch.flip();
+		while (this.batch.hasRemaining()) {
+			this.channel.write(this.batch);
+		}
+		this.batch.clear();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			this.channel.close();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package reversi;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-size transposition table for search bots, keyed by {@link ReversiGame#getHash()}.
+ *
+ * The whole table is one preallocated {@code long[]}, two longs per entry: the key XOR-ed with the data, and the
+ * data itself. Reading an entry checks that {@code key ^ data} gives back the probed hash, so an entry torn by two
+ * threads writing it at the same time is simply treated as a miss. That makes the table safe to share between
+ * search threads without locks.
+ *
+ * Replacement is depth-preferred: every search takes its own generation from {@link #newSearch()} and passes it to
+ * {@link #store}, and an entry stored by the same search is only overwritten by a search at least as deep. Entries of
+ * earlier searches, or of other searches sharing the table, are always overwritten.
+ */
+public final class TranspositionTable {
+	/** The stored score is an upper bound: the search failed low. */
+	public static final int UPPER_BOUND = 1;
+	/** The stored score is a lower bound: the search failed high. */
+	public static final int LOWER_BOUND = 2;
+	public static final int EXACT = 3;
+
+	/** Returned by {@link #probe(long)} when the position isn't in the table. */
+	public static final long NO_ENTRY = 0;
+	/** The move of entries that have no best move. */
+	public static final int NO_MOVE = 0xFF;
+
+	public static final int DEFAULT_SIZE_MB = 16;
+
+	// Layout of the data long: score in the low 32 bits, then 8 bits of depth, 8 of move, 2 of bound and 6 of
+	// search generation. The bound is never 0, so stored data is never NO_ENTRY.
+	private static final int DEPTH_SHIFT = 32;
+	private static final int MOVE_SHIFT = 40;
+	private static final int BOUND_SHIFT = 48;
+	private static final int GENERATION_SHIFT = 50;
+	private static final int GENERATION_MASK = 0x3F;
+
+	private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+	private final long[] table;
+	private final int indexMask;
+	private final AtomicInteger generations = new AtomicInteger();
+
+	public TranspositionTable() {
+		this(DEFAULT_SIZE_MB);
+	}
+
+	/**
+	 * @param sizeMb the memory the table may use. The number of entries is rounded down to a power of 2.
+	 */
+	public TranspositionTable(int sizeMb) {
+		if (sizeMb <= 0) {
+			throw new IllegalArgumentException("Table size must be positive: " + sizeMb + "MB");
+		}
+		long entries = Long.highestOneBit((long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+		// Java arrays are indexed by int
+		entries = Math.min(entries, 1L << 29);
+		this.table = new long[(int) entries * 2];
+		this.indexMask = (int) entries - 1;
+	}
+
+	/**
+	 * @return the number of positions the table can hold
+	 */
+	public int capacity() {
+		return this.indexMask + 1;
+	}
+
+	/**
+	 * Starts a new search: entries of earlier searches become the first to be replaced.
+	 * @return the generation to store the entries of the search with
+	 */
+	public int newSearch() {
+		return this.generations.incrementAndGet() & GENERATION_MASK;
+	}
+
+	public void clear() {
+		Arrays.fill(this.table, 0);
+	}
+
+	/**
+	 * @return the data stored for the position, to be read with {@link #score(long)}, {@link #depth(long)},
+	 *         {@link #bound(long)} and {@link #move(long)}, or {@link #NO_ENTRY} if it isn't in the table
+	 */
+	public long probe(long hash) {
+		int index = ((int) hash & this.indexMask) << 1;
+		long data = this.table[index + 1];
+		boolean hit = (this.table[index] ^ data) == hash;
+		if (Metrics.ENABLED) {
+			Metrics.increment(Metrics.Counter.TT_PROBES);
+			if (hit) {
+				Metrics.increment(Metrics.Counter.TT_HITS);
+			}
+		}
+		return hit ? data : NO_ENTRY;
+	}
+
+	/**
+	 * @param depth the depth the position was searched to
+	 * @param score the score found, interpreted according to bound
+	 * @param bound {@link #UPPER_BOUND}, {@link #LOWER_BOUND} or {@link #EXACT}
+	 * @param move the square of the best move, or {@link #NO_MOVE}
+	 * @param generation the generation of the search, from {@link #newSearch()}
+	 */
+	public void store(long hash, int depth, int score, int bound, int move, int generation) {
+		int index = ((int) hash & this.indexMask) << 1;
+		long oldData = this.table[index + 1];
+		if (oldData != NO_ENTRY && depth(oldData) > depth && generation(oldData) == generation) {
+			return;
+		}
+		long data = (score & 0xFFFFFFFFL)
+				| ((long) depth << DEPTH_SHIFT)
+				| ((long) move << MOVE_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) generation << GENERATION_SHIFT);
+		this.table[index] = hash ^ data;
+		this.table[index + 1] = data;
+	}
+
+	public static int score(long data) {
+		return (int) data;
+	}
+
+	public static int depth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	public static int move(long data) {
+		return (int) (data >>> MOVE_SHIFT) & 0xFF;
+	}
+
+	public static int bound(long data) {
+		return (int) (data >>> BOUND_SHIFT) & 0x3;
+	}
+
+	private static int generation(long data) {
+		return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+}
@@ -0,0 +1,203 @@
+package reversi;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Fits the {@link EvaluationWeights} to {@link TrainingData}: a linear model of the final disk difference over the
+ * pattern, mobility and parity features of the {@link PatternEvaluator}, trained by mini-batch gradient descent on
+ * the squared error.
+ *
+ * The positions are split into mini-batches, shuffled every epoch and divided between the threads. Each thread sums
+ * the gradient of a mini-batch in its own buffer and then updates the shared weights without locking: a mini-batch
+ * touches only a few thousand of the weights, so threads rarely update the same weight at once and a lost update
+ * does no harm. Each weight's step is its gradient divided by the sum of its squared feature values in the batch
+ * (for a pattern weight, the number of positions it occurs in), so rare pattern contents learn as fast as common
+ * ones.
+ *
+ * Usage: {@code java reversi.WeightTrainer <data file> <weights file> [epochs=10] [threads=cores] [batchSize=1024]
+ * [learningRate=0.01]}. The weights are written in disk units times {@link #UNITS_PER_DISK}.
+ */
+public class WeightTrainer {
+	/** The evaluation units of one disk of final disk difference. */
+	public static final int UNITS_PER_DISK = 32;
+	public static final int DEFAULT_EPOCHS = 10;
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+	public static final double DEFAULT_LEARNING_RATE = 0.01;
+
+	/** Per stage: the pattern weights, then the mobility and the parity weight. */
+	private static final int WEIGHTS_PER_STAGE = Patterns.WEIGHTS_PER_STAGE + 2;
+	private static final int MOBILITY = Patterns.WEIGHTS_PER_STAGE;
+	private static final int PARITY = Patterns.WEIGHTS_PER_STAGE + 1;
+	/** The number of features of a position: the pattern instances, mobility and parity. */
+	private static final int FEATURES = Patterns.INSTANCES + 2;
+
+	private final float[] weights = new float[EvaluationWeights.STAGES * WEIGHTS_PER_STAGE];
+	private final int threads;
+	private final int batchSize;
+	private final float learningRate;
+	private final Random random = new Random(20240611L);
+
+	public WeightTrainer(int threads, int batchSize, double learningRate) {
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.learningRate = (float) learningRate;
+	}
+
+	/**
+	 * Runs one pass over all the positions.
+	 * @return the mean squared error of the predictions made during the pass, in disks squared
+	 */
+	public double trainEpoch(TrainingData data) throws InterruptedException, ExecutionException {
+		int batches = (int) ((data.size() + this.batchSize - 1) / this.batchSize);
+		int[] order = new int[batches];
+		for (int i = 0; i < batches; i++) {
+			order[i] = i;
+		}
+		for (int i = batches - 1; i > 0; i--) {
+			int j = this.random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			List<Future<Double>> workers = new ArrayList<>();
+			for (int t = 0; t < this.threads; t++) {
+				int first = t;
+				workers.add(pool.submit(() -> {
+					Worker worker = new Worker();
+					double squaredError = 0;
+					for (int i = first; i < batches; i += this.threads) {
+						long start = (long) order[i] * this.batchSize;
+						squaredError += worker.trainBatch(data, start, Math.min(data.size(), start + this.batchSize));
+					}
+					return squaredError;
+				}));
+			}
+			double squaredError = 0;
+			for (Future<Double> worker : workers) {
+				squaredError += worker.get();
+			}
+			return data.size() == 0 ? 0 : squaredError / data.size();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The buffers of one training thread.
+	 */
+	private class Worker {
+		private final int[] indices = new int[Patterns.INSTANCES];
+		private final int[] features = new int[FEATURES];
+		private final float[] gradients = new float[WeightTrainer.this.weights.length];
+		private final float[] squares = new float[WeightTrainer.this.weights.length];
+		private final int[] touched = new int[WeightTrainer.this.batchSize * FEATURES];
+
+		/**
+		 * Updates the weights for the positions from start (inclusive) to end (exclusive).
+		 * @return the sum of the squared errors of the positions before the update
+		 */
+		double trainBatch(TrainingData data, long start, long end) {
+			float[] weights = WeightTrainer.this.weights;
+			double squaredError = 0;
+			int touchedCount = 0;
+			for (long position = start; position < end; position++) {
+				long playerOneDisks = data.getPlayerOneDisks(position);
+				long playerTwoDisks = data.getPlayerTwoDisks(position);
+				int stageOffset = EvaluationWeights.stage(Long.bitCount(playerOneDisks | playerTwoDisks)) * WEIGHTS_PER_STAGE;
+				int mobility = Long.bitCount(Bitboard.moves(playerOneDisks, playerTwoDisks))
+						- Long.bitCount(Bitboard.moves(playerTwoDisks, playerOneDisks));
+				// Parity favours the player to move with an odd number of empties, see PatternEvaluator
+				int parity = (Long.bitCount(~(playerOneDisks | playerTwoDisks)) & 1) != 0 ? 1 : -1;
+				if (data.getPlayer(position) == ReversiGame.PLAYER_TWO) {
+					parity = -parity;
+				}
+
+				Patterns.computeIndices(playerOneDisks, playerTwoDisks, this.indices);
+				float prediction = 0;
+				for (int i = 0; i < Patterns.INSTANCES; i++) {
+					this.features[i] = stageOffset + this.indices[i];
+					prediction += weights[this.features[i]];
+				}
+				this.features[Patterns.INSTANCES] = stageOffset + MOBILITY;
+				this.features[Patterns.INSTANCES + 1] = stageOffset + PARITY;
+				prediction += mobility * weights[stageOffset + MOBILITY] + parity * weights[stageOffset + PARITY];
+
+				float error = prediction - data.getDiskDifference(position);
+				squaredError += error * error;
+				for (int i = 0; i < FEATURES; i++) {
+					int feature = this.features[i];
+					float value = i < Patterns.INSTANCES ? 1 : i == Patterns.INSTANCES ? mobility : parity;
+					if (this.squares[feature] == 0 && value != 0) {
+						this.touched[touchedCount++] = feature;
+					}
+					this.gradients[feature] += error * value;
+					this.squares[feature] += value * value;
+				}
+			}
+			for (int i = 0; i < touchedCount; i++) {
+				int feature = this.touched[i];
+				weights[feature] -= WeightTrainer.this.learningRate * this.gradients[feature] / this.squares[feature];
+				this.gradients[feature] = 0;
+				this.squares[feature] = 0;
+			}
+			return squaredError;
+		}
+	}
+
+	/**
+	 * @return the trained weights, rounded to evaluation units
+	 */
+	public EvaluationWeights toWeights() {
+		short[][] patterns = new short[EvaluationWeights.STAGES][Patterns.WEIGHTS_PER_STAGE];
+		short[] mobility = new short[EvaluationWeights.STAGES];
+		short[] parity = new short[EvaluationWeights.STAGES];
+		for (int stage = 0; stage < EvaluationWeights.STAGES; stage++) {
+			int offset = stage * WEIGHTS_PER_STAGE;
+			for (int i = 0; i < Patterns.WEIGHTS_PER_STAGE; i++) {
+				patterns[stage][i] = toUnits(this.weights[offset + i]);
+			}
+			mobility[stage] = toUnits(this.weights[offset + MOBILITY]);
+			parity[stage] = toUnits(this.weights[offset + PARITY]);
+		}
+		return new EvaluationWeights(patterns, mobility, parity);
+	}
+
+	private static short toUnits(float disks) {
+		return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(disks * UNITS_PER_DISK)));
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: java reversi.WeightTrainer <data file> <weights file> [epochs] [threads] [batchSize] [learningRate]");
+			System.exit(1);
+		}
+		int epochs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EPOCHS;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_BATCH_SIZE;
+		double learningRate = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_LEARNING_RATE;
+
+		WeightTrainer trainer = new WeightTrainer(threads, batchSize, learningRate);
+		try (TrainingData data = TrainingData.open(Paths.get(args[0]))) {
+			System.out.println("Training on " + data.size() + " positions for " + epochs + " epochs on " + threads
+					+ " threads, batches of " + batchSize + ", learning rate " + learningRate);
+			for (int epoch = 1; epoch <= epochs; epoch++) {
+				long start = System.nanoTime();
+				double meanSquaredError = trainer.trainEpoch(data);
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.printf("Epoch %d: RMS error %.2f disks, %.1f seconds (%.0f positions/sec)%n", epoch,
+						Math.sqrt(meanSquaredError), seconds, data.size() / seconds);
+			}
+		}
+		trainer.toWeights().save(Paths.get(args[1]));
+		System.out.println("Wrote " + args[1]);
+	}
+}
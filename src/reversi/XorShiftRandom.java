@@ -0,0 +1,36 @@
+package reversi;
+
+/**
+ * A xorshift64* generator for random playouts: a few instructions per number and no allocation. Not thread safe, so
+ * every thread or batch keeps its own.
+ */
+final class XorShiftRandom {
+	private long state;
+
+	XorShiftRandom(long seed) {
+		this.state = seed == 0 ? 1 : seed;
+	}
+
+	/**
+	 * @return a random number from 0 (inclusive) to bound (exclusive)
+	 */
+	int nextInt(int bound) {
+		long x = this.state;
+		x ^= x >>> 12;
+		x ^= x << 25;
+		x ^= x >>> 27;
+		this.state = x;
+		return (int) (((x * 0x2545F4914F6CDD1DL >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * @param moves a mask of moves, not empty
+	 * @return the square of one of the moves, chosen uniformly
+	 */
+	int nextSquare(long moves) {
+		for (int n = nextInt(Long.bitCount(moves)); n > 0; n--) {
+			moves &= moves - 1;
+		}
+		return Long.numberOfTrailingZeros(moves);
+	}
+}
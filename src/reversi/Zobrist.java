@@ -0,0 +1,62 @@
+package reversi;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing of reversi positions. A position's hash is the XOR of one random key per disk on the board
+ * (one set of keys per player) and, when player two is to move, a side-to-move key. {@link ReversiGame} keeps
+ * the hash of its position up to date on every move.
+ */
+public final class Zobrist {
+	/** Fixed seed, so hashes are the same from run to run (and can be stored in files). */
+	private static final long SEED = 0x5EED_2E7E_251DL;
+
+	/** The disk keys, indexed by player number and square (index 0 is unused). */
+	private static final long[][] DISK_KEYS = new long[3][Bitboard.SQUARES];
+	private static final long PLAYER_TWO_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int player = ReversiGame.PLAYER_ONE; player <= ReversiGame.PLAYER_TWO; player++) {
+			for (int square = 0; square < Bitboard.SQUARES; square++) {
+				DISK_KEYS[player][square] = random.nextLong();
+			}
+		}
+		PLAYER_TWO_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long diskKey(int player, int square) {
+		return DISK_KEYS[player][square];
+	}
+
+	/**
+	 * @return the XOR of the keys of all the given player's disks in the mask
+	 */
+	public static long disksKey(int player, long mask) {
+		long[] keys = DISK_KEYS[player];
+		long key = 0;
+		while (mask != 0) {
+			key ^= keys[Long.numberOfTrailingZeros(mask)];
+			mask &= mask - 1;
+		}
+		return key;
+	}
+
+	/**
+	 * @return the key to XOR in or out when the player to move is the given player
+	 */
+	public static long sideKey(int player) {
+		return player == ReversiGame.PLAYER_TWO ? PLAYER_TWO_TO_MOVE : 0;
+	}
+
+	/**
+	 * @return the hash of the position computed from scratch
+	 */
+	public static long hash(long playerOneDisks, long playerTwoDisks, int curPlayer) {
+		return disksKey(ReversiGame.PLAYER_ONE, playerOneDisks) ^ disksKey(ReversiGame.PLAYER_TWO, playerTwoDisks)
+				^ sideKey(curPlayer);
+	}
+}
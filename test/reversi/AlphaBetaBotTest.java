@@ -0,0 +1,80 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class AlphaBetaBotTest {
+
+	@Test
+	void testReturnsLegalMoveInTime() {
+		ReversiGame game = new ReversiGame();
+		AlphaBetaBot bot = new AlphaBetaBot(game, 200);
+
+		long start = System.nanoTime();
+		MoveScore move = bot.getNextMove();
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertNotNull(move, "Expected a move from the initial board");
+		assertTrue(containsSquare(game.getPossibleMoves(), move), "Expected a legal move but got (" + move.getRow() + ", " + move.getColumn() + ")");
+		assertTrue(elapsedMillis < 400, "Expected the move within the time budget, took " + elapsedMillis + "ms");
+		assertTrue(bot.getCompletedDepth() >= 1, "Expected at least depth 1 to be completed");
+	}
+
+	@Test
+	void testScoresWipeout() {
+		// Player one's only move (0, 0) wipes out player two
+		ReversiGame game = new ReversiGame();
+		int[][] board = game.getBoard();
+		for (int[] row : board) {
+			Arrays.fill(row, 0);
+		}
+		board[0][1] = ReversiGame.PLAYER_TWO;
+		board[0][2] = ReversiGame.PLAYER_ONE;
+		board[5][5] = ReversiGame.PLAYER_ONE;
+
+		MoveScore move = new AlphaBetaBot(game, 200).getNextMove();
+		assertEquals(new MoveScore(0, 0, AlphaBetaBot.WIN_SCORE + 4), move, "Expected the winning move (0, 0)");
+	}
+
+	@Test
+	void testEndgameKeepsTimeBudget() {
+		// 12 empty squares: solved exactly unless the solver runs out of its share of the budget
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		java.util.Random random = new java.util.Random(9);
+		while (game.getEmptyCount() > AlphaBetaBot.SOLVE_EMPTIES || game.isGameOver()) {
+			if (game.isGameOver()) {
+				game = new ReversiGame();
+				game.setListener(GameListener.NONE);
+			}
+			MoveScore[] moves = game.getPossibleMoves();
+			MoveScore move = moves[random.nextInt(moves.length)];
+			game.makeMove(move.getRow(), move.getColumn());
+		}
+		for (long budgetMillis : new long[] {1, 1000}) {
+			AlphaBetaBot bot = new AlphaBetaBot(game, budgetMillis);
+			long start = System.nanoTime();
+			MoveScore move = bot.getNextMove();
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			assertTrue(containsSquare(game.getPossibleMoves(), move), "Expected a legal move");
+			assertTrue(elapsedMillis < budgetMillis + 100, "Expected the move within the time budget, took " + elapsedMillis + "ms");
+		}
+	}
+
+	@Test
+	void testNoMoves() {
+		ReversiGame game = new ReversiGame();
+		for (int[] row : game.getBoard()) {
+			Arrays.fill(row, 0);
+		}
+		assertNull(new AlphaBetaBot(game, 50).getNextMove(), "Expected no move on an empty board");
+	}
+
+	private static boolean containsSquare(MoveScore[] moves, MoveScore move) {
+		List<MoveScore> movesList = Arrays.asList(moves);
+		return movesList.stream().anyMatch(m -> m.getRow() == move.getRow() && m.getColumn() == move.getColumn());
+	}
+}
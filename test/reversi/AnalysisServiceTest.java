@@ -0,0 +1,176 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class AnalysisServiceTest {
+	private static final int DEPTH = 3;
+
+	@Test
+	void testSymmetricPositionsShareOneSearch() throws InterruptedException {
+		List<Position> positions = randomPositions(5, 1);
+		List<Position> queries = new ArrayList<>();
+		for (Position position : positions) {
+			for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+				queries.add(transform(position, symmetry, false));
+				queries.add(transform(position, symmetry, true));
+			}
+		}
+
+		try (AnalysisService service = new AnalysisService(2, AnalysisService.DEFAULT_CACHE_ENTRIES)) {
+			AnalysisService.Result[] results = analyze(service, queries, DEPTH);
+			assertEquals(queries.size(), service.getQueries());
+			assertEquals(queries.size() - positions.size(), service.getCacheHits() + service.getSharedSearches());
+
+			for (int p = 0; p < positions.size(); p++) {
+				int base = p * 2 * BoardSymmetry.COUNT;
+				MoveScore expected = results[base].getBestMove();
+				int expectedSquare = Bitboard.square(expected.getRow(), expected.getColumn());
+				int searched = 0;
+				for (int i = 0; i < 2 * BoardSymmetry.COUNT; i++) {
+					AnalysisService.Result result = results[base + i];
+					searched += result.isSearched() ? 1 : 0;
+					MoveScore move = result.getBestMove();
+					assertEquals(BoardSymmetry.applyToSquare(i / 2, expectedSquare), Bitboard.square(move.getRow(), move.getColumn()));
+					assertEquals(expected.getScore(), move.getScore());
+					assertLegal(result.getPosition(), move);
+				}
+				assertEquals(1, searched, "Expected one search for all the versions of position " + p);
+			}
+		}
+	}
+
+	@Test
+	void testCacheByDepth() throws InterruptedException {
+		List<Position> queries = randomPositions(10, 2);
+		try (AnalysisService service = new AnalysisService(2, AnalysisService.DEFAULT_CACHE_ENTRIES)) {
+			AnalysisService.Result[] first = analyze(service, queries, DEPTH);
+			AnalysisService.Result[] second = analyze(service, queries, DEPTH);
+			for (int i = 0; i < queries.size(); i++) {
+				assertTrue(first[i].isSearched());
+				assertFalse(second[i].isSearched());
+				assertEquals(first[i].getBestMove(), second[i].getBestMove());
+			}
+			assertEquals(10, service.getCacheHits());
+			assertEquals(0.5, service.getHitRate(), 1e-9);
+			assertEquals(20, service.getLatencies().getTotalCount());
+
+			// Another depth is another search
+			AnalysisService.Result[] deeper = analyze(service, queries.subList(0, 1), DEPTH + 1);
+			assertTrue(deeper[0].isSearched());
+		}
+	}
+
+	@Test
+	void testLeastRecentlyUsedEviction() throws InterruptedException {
+		List<Position> queries = randomPositions(3, 3);
+		try (AnalysisService service = new AnalysisService(1, 2)) {
+			analyze(service, queries, DEPTH);
+			// The first position was evicted by the third one
+			assertTrue(analyze(service, queries.subList(0, 1), DEPTH)[0].isSearched());
+			assertFalse(analyze(service, queries.subList(2, 3), DEPTH)[0].isSearched());
+		}
+	}
+
+	@Test
+	void testMatchesDirectSearch() throws InterruptedException {
+		List<Position> queries = randomPositions(4, 4);
+		try (AnalysisService service = new AnalysisService(2, AnalysisService.DEFAULT_CACHE_ENTRIES)) {
+			AnalysisService.Result[] results = analyze(service, queries, DEPTH);
+			for (int i = 0; i < queries.size(); i++) {
+				ReversiGame game = new ReversiGame();
+				game.setPosition(queries.get(i));
+				MoveScore expected = new AlphaBetaBot(game).getBestMove(DEPTH);
+				assertEquals(expected.getScore(), results[i].getBestMove().getScore());
+			}
+		}
+	}
+
+	@Test
+	void testInterruptedQueryDoesNotBlockLaterOnes() throws InterruptedException {
+		List<Position> queries = randomPositions(1, 5);
+		try (AnalysisService service = new AnalysisService(1, AnalysisService.DEFAULT_CACHE_ENTRIES)) {
+			Thread.currentThread().interrupt();
+			assertThrows(InterruptedException.class, () -> service.analyze(queries.iterator(), DEPTH, result -> {
+			}));
+			assertFalse(Thread.interrupted());
+			// The position of the interrupted query isn't left waiting for a search that was never started
+			assertTrue(analyze(service, queries, DEPTH)[0].isSearched());
+		}
+	}
+
+	@Test
+	void testClose() throws InterruptedException {
+		List<Position> queries = randomPositions(100, 6);
+		AnalysisService service = new AnalysisService(1, AnalysisService.DEFAULT_CACHE_ENTRIES);
+		Throwable[] failure = new Throwable[1];
+		Thread batch = new Thread(() -> {
+			try {
+				service.analyze(queries.iterator(), DEPTH + 2, result -> service.close());
+			} catch (Throwable e) {
+				failure[0] = e;
+			}
+		});
+		batch.start();
+		batch.join(10_000);
+		assertFalse(batch.isAlive(), "Expected the batch to stop when the service is closed");
+		assertInstanceOf(IllegalStateException.class, failure[0]);
+		assertThrows(IllegalStateException.class, () -> analyze(service, queries.subList(0, 1), DEPTH));
+	}
+
+	private static AnalysisService.Result[] analyze(AnalysisService service, List<Position> queries,
+			int depth) throws InterruptedException {
+		AnalysisService.Result[] results = new AnalysisService.Result[queries.size()];
+		int[] calls = new int[1];
+		// Results may come from the worker threads, where failed assertions would be lost
+		service.analyze(queries.iterator(), depth, result -> {
+			results[result.getIndex()] = result;
+			calls[0]++;
+		});
+		assertEquals(queries.size(), calls[0], "Expected one result per query");
+		for (AnalysisService.Result result : results) {
+			assertNotNull(result);
+		}
+		return results;
+	}
+
+	/**
+	 * Positions after 20 random moves, with the player to move having a move.
+	 */
+	private static List<Position> randomPositions(int count, long seed) {
+		Random random = new Random(seed);
+		List<Position> positions = new ArrayList<>();
+		while (positions.size() < count) {
+			ReversiGame game = new ReversiGame();
+			game.setListener(GameListener.NONE);
+			for (int i = 0; i < 20 && !game.isGameOver(); i++) {
+				MoveScore[] moves = game.getPossibleMoves();
+				MoveScore move = moves[random.nextInt(moves.length)];
+				game.makeMove(move.getRow(), move.getColumn());
+			}
+			if (!game.isGameOver()) {
+				positions.add(game.getPosition());
+			}
+		}
+		return positions;
+	}
+
+	private static Position transform(Position position, int symmetry, boolean swapColours) {
+		long playerOne = BoardSymmetry.apply(symmetry, position.getPlayerOneDisks());
+		long playerTwo = BoardSymmetry.apply(symmetry, position.getPlayerTwoDisks());
+		if (swapColours) {
+			return new Position(playerTwo, playerOne, ReversiGame.opponentPlayer(position.getPlayer()));
+		}
+		return new Position(playerOne, playerTwo, position.getPlayer());
+	}
+
+	private static void assertLegal(Position position, MoveScore move) {
+		ReversiGame game = new ReversiGame();
+		game.setPosition(position);
+		assertTrue(game.makeMove(move.getRow(), move.getColumn()), "Expected a legal move");
+	}
+}
@@ -0,0 +1,195 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class BoardSizeTest {
+
+	private static final int[] SIZES = {4, 6, 8, 10, 12, 16};
+
+	@Test
+	void testInitialPosition() {
+		for (int size : SIZES) {
+			ReversiGame game = new ReversiGame(size);
+			int[][] board = game.getBoard();
+			assertEquals(size, game.getSize());
+			assertEquals(size, board.length);
+			int mid = size / 2;
+			assertEquals(ReversiGame.PLAYER_ONE, board[mid - 1][mid - 1]);
+			assertEquals(ReversiGame.PLAYER_TWO, board[mid - 1][mid]);
+			assertEquals(ReversiGame.PLAYER_TWO, board[mid][mid - 1]);
+			assertEquals(ReversiGame.PLAYER_ONE, board[mid][mid]);
+			assertEquals(size * size - 4, game.getEmptyCount());
+			assertEquals(4, game.getMobility(ReversiGame.PLAYER_ONE), "size " + size);
+			assertFalse(game.isOnBoard(size, 0));
+			assertTrue(game.isOnBoard(size - 1, size - 1));
+		}
+	}
+
+	@Test
+	void testUnsupportedSizes() {
+		for (int size : new int[] {0, 2, 5, 7, 18}) {
+			assertThrows(IllegalArgumentException.class, () -> new ReversiGame(size), "size " + size);
+		}
+	}
+
+	@Test
+	void testBitboardMethodsAreOnlyFor8x8() {
+		ReversiGame game = new ReversiGame(10);
+		assertThrows(UnsupportedOperationException.class, () -> game.getDisks(ReversiGame.PLAYER_ONE));
+		assertThrows(UnsupportedOperationException.class, () -> game.getMoveMask(ReversiGame.PLAYER_ONE));
+		assertThrows(UnsupportedOperationException.class, game::getHash);
+		assertThrows(UnsupportedOperationException.class,
+				() -> game.getPossibleMoves(ReversiGame.PLAYER_ONE, new int[ReversiGame.MOVE_BUFFER_SIZE]));
+
+		ReversiGame standard = new ReversiGame(8);
+		assertEquals(new ReversiGame().getHash(), standard.getHash());
+		assertEquals(Bitboard.bit(3, 3) | Bitboard.bit(4, 4), standard.getDisks(ReversiGame.PLAYER_ONE));
+	}
+
+	@Test
+	void testRandomGamesMatchReference() {
+		Random random = new Random(19);
+		for (int size : SIZES) {
+			for (int g = 0; g < 20; g++) {
+				playRandomGame(size, random);
+			}
+		}
+	}
+
+	@Test
+	void testCopyAndBoardEdits() {
+		ReversiGame game = new ReversiGame(12);
+		game.makeMove(game.getPossibleMoves()[0].getRow(), game.getPossibleMoves()[0].getColumn());
+		ReversiGame copy = new ReversiGame(game);
+		assertTrue(Arrays.deepEquals(game.getBoard(), copy.getBoard()));
+		assertEquals(0, copy.getUndoDepth());
+		copy.makeMove(copy.getPossibleMoves()[0].getRow(), copy.getPossibleMoves()[0].getColumn());
+		assertFalse(Arrays.deepEquals(game.getBoard(), copy.getBoard()));
+
+		// Edits through the board array are picked up like on 8x8 boards
+		for (int[] row : game.getBoard()) {
+			Arrays.fill(row, ReversiGame.PLAYER_TWO);
+		}
+		assertEquals(144, game.getDiskCount(ReversiGame.PLAYER_TWO));
+		assertTrue(game.isGameOver());
+		assertEquals(ReversiGame.PLAYER_TWO, game.getWinner());
+		assertFalse(game.undoMove());
+	}
+
+	private static void playRandomGame(int size, Random random) {
+		ReversiGame game = new ReversiGame(size);
+		int[][] reference = new int[size][size];
+		for (int r = 0; r < size; r++) {
+			reference[r] = game.getBoard()[r].clone();
+		}
+		List<int[][]> history = new ArrayList<>();
+		while (!game.isGameOver()) {
+			int player = game.getCurPlayer();
+			MoveScore[] moves = game.getPossibleMoves(player);
+			assertEquals(describe(referenceMoves(reference, player)), describe(moves), "size " + size);
+			assertEquals(moves.length, game.getMobility(player));
+			MoveScore move = moves[random.nextInt(moves.length)];
+			history.add(copy(reference));
+			referencePlay(reference, player, move.getRow(), move.getColumn());
+			assertTrue(game.makeMove(move.getRow(), move.getColumn()));
+			assertTrue(Arrays.deepEquals(reference, game.getBoard()), "size " + size);
+			assertEquals(count(reference, ReversiGame.PLAYER_ONE), game.getDiskCount(ReversiGame.PLAYER_ONE));
+			assertEquals(count(reference, 0), game.getEmptyCount());
+		}
+		assertEquals(0, referenceMoves(reference, ReversiGame.PLAYER_ONE).length);
+		assertEquals(0, referenceMoves(reference, ReversiGame.PLAYER_TWO).length);
+		for (int i = history.size() - 1; i >= 0; i--) {
+			assertTrue(game.undoMove());
+			assertTrue(Arrays.deepEquals(history.get(i), game.getBoard()), "size " + size);
+		}
+		assertFalse(game.undoMove());
+		assertEquals(ReversiGame.PLAYER_ONE, game.getCurPlayer());
+	}
+
+	private static MoveScore[] referenceMoves(int[][] board, int player) {
+		List<MoveScore> moves = new ArrayList<>();
+		for (int r = 0; r < board.length; r++) {
+			for (int c = 0; c < board.length; c++) {
+				int flips = referenceFlips(board, player, r, c, false);
+				if (flips > 0) {
+					moves.add(new MoveScore(r, c, flips));
+				}
+			}
+		}
+		return moves.toArray(new MoveScore[0]);
+	}
+
+	private static void referencePlay(int[][] board, int player, int row, int col) {
+		assertTrue(referenceFlips(board, player, row, col, true) > 0);
+		board[row][col] = player;
+	}
+
+	/**
+	 * Walks the board one square at a time in every direction, flipping the disks if asked to.
+	 */
+	private static int referenceFlips(int[][] board, int player, int row, int col, boolean apply) {
+		if (board[row][col] != 0) {
+			return 0;
+		}
+		int size = board.length;
+		int total = 0;
+		for (int dr = -1; dr <= 1; dr++) {
+			for (int dc = -1; dc <= 1; dc++) {
+				if (dr == 0 && dc == 0) {
+					continue;
+				}
+				int r = row + dr;
+				int c = col + dc;
+				int run = 0;
+				while (r >= 0 && r < size && c >= 0 && c < size && board[r][c] == ReversiGame.opponentPlayer(player)) {
+					r += dr;
+					c += dc;
+					run++;
+				}
+				if (run == 0 || r < 0 || r >= size || c < 0 || c >= size || board[r][c] != player) {
+					continue;
+				}
+				total += run;
+				for (int i = 1; apply && i <= run; i++) {
+					board[row + i * dr][col + i * dc] = player;
+				}
+			}
+		}
+		return total;
+	}
+
+	private static List<String> describe(MoveScore[] moves) {
+		List<String> described = new ArrayList<>();
+		for (MoveScore move : moves) {
+			described.add(move.getRow() + "," + move.getColumn() + ":" + move.getScore());
+		}
+		described.sort(null);
+		return described;
+	}
+
+	private static int[][] copy(int[][] board) {
+		int[][] copy = new int[board.length][];
+		for (int r = 0; r < board.length; r++) {
+			copy[r] = board[r].clone();
+		}
+		return copy;
+	}
+
+	private static int count(int[][] board, int value) {
+		int count = 0;
+		for (int[] row : board) {
+			for (int cell : row) {
+				if (cell == value) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,74 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class EndgameSolverTest {
+
+	/**
+	 * Positions reached by random play and their exact scores, found by a full minimax over
+	 * {@link ReversiGame#getPossibleMoves(int)} and {@link ReversiGame#makeMove(int, int)}.
+	 * X is the player to move, O the opponent, squares in row order.
+	 */
+	private static final String[][] SOLVED_POSITIONS = {
+			{"XOOOOOOOXOOXOOO-XOOOXOOOOOOOXXXXOOOXXXX-OXOXOOO--OOOOO-O-XO-OOO-", "12"},
+			{"XXXXXXX-XXOXOXXXOXXXXOXXOXXXOXXXOX-OXXOOOXOOXXXOOO-X--XOO-XXX---", "6"},
+			{"X-OXXOOOXX-XXXOXXXXXOOO-XXXOOOOXXXOXOXOO-XOOXOO-OOOOOXO--XOO-X--", "2"},
+			{"-X-OOOOX-XX-OOOX-XXXXOOXOXXOOOOX-XXXOXOX-XOXXXOX-OXOXXO-OOOOOOO-", "-16"},
+			{"---OOOX--XXXXX---OXXXOOOOOXXOXOO-OXOXOOOXXXXOXOOOOOOOOXO--XXXXXX", "30"},
+			{"XOO-X-X--OO-X-XX-OOOOOOOOOOOXXOOXOOXOOXO-OXXXOXOOXO-X-OOXXXXXX-O", "18"},
+			{"--X--OOOOOOOOO---OXXOOO-OXXOXOOXXXOOOOOXOOXXOOXXOOOOXXO-X-O-XX-O", "4"},
+			{"-O-X-O--OOOOX-O--OOXOOOOXOXOOOOOOOOOOOXOXOXOXXX-XXOOOXXOX-X-X-XX", "30"},
+	};
+
+	@Test
+	void testSolvedPositions() {
+		EndgameSolver solver = new EndgameSolver();
+		for (String[] position : SOLVED_POSITIONS) {
+			long own = parse(position[0], 'X');
+			long opp = parse(position[0], 'O');
+			int expected = Integer.parseInt(position[1]);
+
+			EndgameSolver.Result result = solver.solve(own, opp);
+			assertEquals(expected, result.getScore(), "Expected score of " + position[0]);
+			assertEquals(expected, EndgameSolver.solveSerial(own, opp), "Expected serial score of " + position[0]);
+
+			int square = result.getBestMove();
+			assertTrue((Bitboard.moves(own, opp) & (1L << square)) != 0, "Expected a legal best move for " + position[0]);
+			long flips = Bitboard.flips(own, opp, square);
+			assertEquals(expected, -EndgameSolver.solveSerial(opp & ~flips, own | flips | (1L << square)),
+					"Expected the best move to reach the score for " + position[0]);
+			assertTrue(result.getNodes() > 0, "Expected the nodes to be counted");
+		}
+	}
+
+	@Test
+	void testDeadline() {
+		String position = SOLVED_POSITIONS[SOLVED_POSITIONS.length - 1][0];
+		long own = parse(position, 'X');
+		long opp = parse(position, 'O');
+		EndgameSolver solver = new EndgameSolver();
+		assertNull(solver.solve(own, opp, System.nanoTime() - 1), "Expected no result past the deadline");
+		EndgameSolver.Result result = solver.solve(own, opp, System.nanoTime() + 60_000_000_000L);
+		assertEquals(Integer.parseInt(SOLVED_POSITIONS[SOLVED_POSITIONS.length - 1][1]), result.getScore());
+	}
+
+	@Test
+	void testFinishedGame() {
+		long own = -1L >>> 4;
+		long opp = ~own;
+		EndgameSolver.Result result = new EndgameSolver().solve(own, opp);
+		assertEquals(56, result.getScore(), "Expected the final disk difference");
+		assertEquals(-1, result.getBestMove(), "Expected no move in a finished game");
+	}
+
+	private static long parse(String position, char disk) {
+		long mask = 0;
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			if (position.charAt(square) == disk) {
+				mask |= 1L << square;
+			}
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,62 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class GameBatchTest {
+
+	@Test
+	void testMatchesReversiGame() {
+		// Always playing the lowest square makes every game the same, so each must match a ReversiGame played that way
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		int plies = 0;
+		while (!game.isGameOver()) {
+			game.makeMove(Long.numberOfTrailingZeros(game.getMoveMask(game.getCurPlayer())));
+			plies++;
+		}
+		long expectedPlayerOne = game.getDisks(ReversiGame.PLAYER_ONE);
+		long expectedPlayerTwo = game.getDisks(ReversiGame.PLAYER_TWO);
+		int expectedPlies = plies;
+
+		GameBatch batch = new GameBatch(3, 7);
+		int[] results = new int[1];
+		batch.playAll((slot, own, opp, moves) -> Long.numberOfTrailingZeros(moves), (gameId, playerOneDisks, playerTwoDisks, gamePlies) -> {
+			assertEquals(expectedPlayerOne, playerOneDisks, "Player one's disks of game " + gameId);
+			assertEquals(expectedPlayerTwo, playerTwoDisks, "Player two's disks of game " + gameId);
+			assertEquals(expectedPlies, gamePlies, "Plies of game " + gameId);
+			results[0]++;
+		});
+		assertEquals(7, results[0]);
+		assertEquals(7, batch.getGamesFinished());
+		assertEquals(0, batch.getActiveCount());
+	}
+
+	@Test
+	void testRecyclesSlots() {
+		GameBatch batch = new GameBatch(16, 100);
+		Set<Long> finished = new HashSet<>();
+		batch.playAll(GameBatch.randomPolicy(42), (gameId, playerOneDisks, playerTwoDisks, plies) -> {
+			assertTrue(finished.add(gameId), "Game " + gameId + " finished twice");
+			assertEquals(0, playerOneDisks & playerTwoDisks, "Overlapping disks in game " + gameId);
+			assertTrue(plies <= Bitboard.SQUARES - 4, "Too many plies in game " + gameId);
+			assertEquals(0, Bitboard.moves(playerOneDisks, playerTwoDisks) | Bitboard.moves(playerTwoDisks, playerOneDisks),
+					"Game " + gameId + " isn't over");
+		});
+		assertEquals(100, finished.size());
+		assertEquals(100, batch.getGamesStarted());
+		for (long gameId = 0; gameId < 100; gameId++) {
+			assertTrue(finished.contains(gameId), "Missing game " + gameId);
+		}
+	}
+
+	@Test
+	void testIllegalMove() {
+		GameBatch batch = new GameBatch(1, 1);
+		assertEquals(ReversiGame.PLAYER_ONE, batch.getCurPlayer(0));
+		assertThrows(IllegalStateException.class, () -> batch.step((slot, own, opp, moves) -> 0, (gameId, p1, p2, plies) -> {}));
+	}
+}
@@ -0,0 +1,65 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class GameRecordTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testWriteAndReadBack() throws Exception {
+		Path file = this.tempDir.resolve("games.rec");
+		Random random = new Random(3);
+		GameRecord[] records = new GameRecord[50];
+		// A tiny batch size, so records are appended in several batches
+		try (GameRecordWriter writer = new GameRecordWriter(file, 200)) {
+			for (int i = 0; i < records.length; i++) {
+				records[i] = randomGame(random, "Bot" + i, "OtherBot");
+				writer.write(records[i]);
+			}
+		}
+		// Appending to an existing file keeps the records already in it
+		GameRecord last = randomGame(random, "LastBot", "OtherBot");
+		try (GameRecordWriter writer = new GameRecordWriter(file)) {
+			writer.write(last);
+		}
+
+		assertTrue(GameRecordReader.isGameRecordFile(file), "Expected a game record file");
+		try (GameRecordReader reader = new GameRecordReader(file)) {
+			for (GameRecord record : records) {
+				GameRecord read = reader.next();
+				assertEquals(record, read, "Expected the records in the order written");
+				assertEquals(record.getWinner(), read.replay().getWinner(), "Expected the replayed game to have the recorded winner");
+			}
+			assertEquals(last, reader.next(), "Expected the appended record");
+			assertNull(reader.next(), "Expected the end of the file");
+		}
+		// 8 bytes of file header, and per record 2 names, 2 bytes of result and move count, and a byte per move
+		long expectedSize = 8;
+		for (GameRecord record : records) {
+			expectedSize += 2 + record.getPlayerOneName().length() + 2 + record.getPlayerTwoName().length() + 2 + record.getMoveCount();
+		}
+		expectedSize += 2 + 7 + 2 + 8 + 2 + last.getMoveCount();
+		assertEquals(expectedSize, Files.size(file), "Expected one byte per move");
+	}
+
+	private static GameRecord randomGame(Random random, String playerOneName, String playerTwoName) {
+		ReversiGame game = new ReversiGame();
+		int[] squares = new int[Bitboard.SQUARES];
+		int count = 0;
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		while (!game.isGameOver()) {
+			int moveCount = game.getPossibleMoves(game.getCurPlayer(), moves);
+			squares[count] = PackedMove.square(moves[random.nextInt(moveCount)]);
+			game.makeMove(squares[count++]);
+		}
+		return new GameRecord(playerOneName, playerTwoName, game.getWinner(), 0, squares, count);
+	}
+}
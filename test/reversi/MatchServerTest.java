@@ -0,0 +1,164 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class MatchServerTest {
+
+	private MatchServer server;
+	private InetSocketAddress address;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		this.server = new MatchServer(0);
+		this.server.start();
+		this.address = new InetSocketAddress("localhost", this.server.getPort());
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		this.server.close();
+	}
+
+	@Test
+	void testRemoteGame() throws Exception {
+		ReversiGame firstGame;
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			// Each side plays its random bot on its own game, with the other side as a MatchClient
+			Future<ReversiGame> first = pool.submit(() -> playAgainstRemote(ReversiGame.PLAYER_ONE, 1));
+			Future<ReversiGame> second = pool.submit(() -> playAgainstRemote(ReversiGame.PLAYER_TWO, 2));
+			firstGame = first.get(30, TimeUnit.SECONDS);
+			ReversiGame secondGame = second.get(30, TimeUnit.SECONDS);
+			assertTrue(firstGame.isGameOver());
+			assertEquals(firstGame.getDisks(ReversiGame.PLAYER_ONE), secondGame.getDisks(ReversiGame.PLAYER_ONE));
+			assertEquals(firstGame.getDisks(ReversiGame.PLAYER_TWO), secondGame.getDisks(ReversiGame.PLAYER_TWO));
+		} finally {
+			pool.shutdown();
+		}
+		awaitGamesFinished(1);
+		assertEquals(firstGame.getUndoDepth(), this.server.getMovesPlayed());
+	}
+
+	@Test
+	void testIllegalMoveForfeits() throws Exception {
+		try (Socket playerOne = new Socket(); Socket playerTwo = new Socket()) {
+			playerOne.connect(this.address);
+			playerTwo.connect(this.address);
+			send(playerOne, MatchProtocol.JOIN, ReversiGame.PLAYER_ONE);
+			send(playerTwo, MatchProtocol.JOIN, MatchProtocol.ANY_COLOUR);
+			assertMessage(playerOne, MatchProtocol.START, ReversiGame.PLAYER_ONE);
+			assertMessage(playerTwo, MatchProtocol.START, ReversiGame.PLAYER_TWO);
+
+			send(playerOne, MatchProtocol.MOVE, Bitboard.square(2, 4));
+			assertMessage(playerTwo, MatchProtocol.MOVED, Bitboard.square(2, 4));
+			// Not player two's square to play
+			send(playerTwo, MatchProtocol.MOVE, Bitboard.square(0, 0));
+			assertMessage(playerOne, MatchProtocol.END, ReversiGame.PLAYER_ONE);
+			assertMessage(playerTwo, MatchProtocol.END, ReversiGame.PLAYER_ONE);
+		}
+		awaitGamesFinished(1);
+		assertEquals(1, this.server.getMovesPlayed());
+	}
+
+	@Test
+	void testDisconnects() throws Exception {
+		try (Socket leaving = new Socket()) {
+			leaving.connect(this.address);
+			send(leaving, MatchProtocol.JOIN, ReversiGame.PLAYER_TWO);
+			await(() -> this.server.getConnections() == 1);
+		}
+		// The server reads the JOIN before the disconnect
+		await(() -> this.server.getConnections() == 0);
+		try (Socket playerTwo = new Socket()) {
+			try (Socket playerOne = new Socket()) {
+				playerOne.connect(this.address);
+				send(playerOne, MatchProtocol.JOIN, ReversiGame.PLAYER_ONE);
+				playerTwo.connect(this.address);
+				send(playerTwo, MatchProtocol.JOIN, ReversiGame.PLAYER_TWO);
+				// The connection that left while waiting isn't paired
+				assertMessage(playerOne, MatchProtocol.START, ReversiGame.PLAYER_ONE);
+				assertMessage(playerTwo, MatchProtocol.START, ReversiGame.PLAYER_TWO);
+			}
+			// Player one left in the middle of the game
+			assertMessage(playerTwo, MatchProtocol.END, ReversiGame.PLAYER_TWO);
+		}
+		awaitGamesFinished(1);
+		assertEquals(1, this.server.getGamesStarted());
+	}
+
+	@Test
+	void testLoadGenerator() throws Exception {
+		MatchLoadGenerator.Result result = MatchLoadGenerator.run(this.address, 200, 500, 21);
+		assertEquals(0, result.getErrors());
+		assertTrue(result.getGames() > 0);
+		assertTrue(result.getMoves() >= result.getGames() * 20);
+		assertTrue(result.getPeakGames() <= 100);
+		assertTrue(result.getTurnLatencies().getTotalCount() <= result.getMoves());
+		awaitGamesFinished(result.getGames());
+	}
+
+	/**
+	 * Plays random moves for the local player against a MatchClient, until the game ends.
+	 */
+	private ReversiGame playAgainstRemote(int remotePlayer, long seed) throws IOException {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		Random random = new Random(seed);
+		try (MatchClient remote = new MatchClient(game, remotePlayer, this.address)) {
+			assertEquals(remotePlayer, remote.awaitStart());
+			while (!game.isGameOver()) {
+				MoveScore move;
+				if (game.getCurPlayer() == remotePlayer) {
+					move = remote.getNextMove();
+				} else {
+					MoveScore[] moves = game.getPossibleMoves();
+					move = moves[random.nextInt(moves.length)];
+				}
+				assertNotNull(move);
+				assertTrue(game.makeMove(move.getRow(), move.getColumn()));
+			}
+		}
+		return game;
+	}
+
+	private void awaitGamesFinished(long games) throws Exception {
+		await(() -> this.server.getGamesFinished() >= games);
+	}
+
+	/**
+	 * Waits for the server thread to catch up.
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "Timed out waiting for the server");
+			Thread.sleep(1);
+		}
+	}
+
+	private static void send(Socket socket, byte type, int argument) throws IOException {
+		socket.getOutputStream().write(new byte[] {type, (byte) argument});
+	}
+
+	private static void assertMessage(Socket socket, byte type, int argument) throws IOException {
+		byte[] message = new byte[MatchProtocol.MESSAGE_SIZE];
+		socket.setSoTimeout(10_000);
+		new DataInputStream(socket.getInputStream()).readFully(message);
+		assertEquals(type, message[0]);
+		assertEquals(argument, message[1] & 0xFF);
+	}
+}
@@ -0,0 +1,89 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class MctsBotTest {
+
+	@Test
+	void testReturnsLegalMoveInTime() {
+		ReversiGame game = new ReversiGame();
+		MctsBot bot = new MctsBot(game, 200, 2, 1 << 16);
+
+		long start = System.nanoTime();
+		MoveScore move = bot.getNextMove();
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertNotNull(move, "Expected a move from the initial board");
+		assertTrue(Arrays.stream(game.getPossibleMoves()).anyMatch(m -> m.getRow() == move.getRow() && m.getColumn() == move.getColumn()),
+				"Expected a legal move but got (" + move.getRow() + ", " + move.getColumn() + ")");
+		assertTrue(elapsedMillis < 400, "Expected the move within the time budget, took " + elapsedMillis + "ms");
+		assertTrue(bot.getPlayouts() > 100, "Expected many playouts, got " + bot.getPlayouts());
+		assertTrue(bot.getTreeSize() > 1 && bot.getTreeSize() <= 1 << 16, "Tree size " + bot.getTreeSize());
+	}
+
+	@Test
+	void testBusyCommonPoolDoesNotDelayMove() throws Exception {
+		// Every common pool thread is blocked for longer than the move may take
+		CountDownLatch release = new CountDownLatch(1);
+		ForkJoinPool common = ForkJoinPool.commonPool();
+		List<Future<?>> blockers = new ArrayList<>();
+		for (int i = 0; i < common.getParallelism() + 1; i++) {
+			blockers.add(common.submit(() -> {
+				release.await();
+				return null;
+			}));
+		}
+		try {
+			MctsBot bot = new MctsBot(new ReversiGame(), 100, 3, 1 << 16);
+			long start = System.nanoTime();
+			assertNotNull(bot.getNextMove());
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			assertTrue(elapsedMillis < 300, "Expected the move within the time budget, took " + elapsedMillis + "ms");
+			assertNotNull(bot.getNextMove(), "Expected the bot to search again");
+		} finally {
+			release.countDown();
+		}
+		for (Future<?> blocker : blockers) {
+			blocker.get();
+		}
+	}
+
+	@Test
+	void testFindsWinningMove() {
+		// X to move wins with (0, 0) and loses by at least 26 disks after any other move
+		String position = "-XXXXOOXOXXOOOOXOXXXOOOXOOXOXXOXOXOXOOOOOOXOOO--OXX-OOO-X-X----O";
+		ReversiGame game = new ReversiGame();
+		int[][] board = game.getBoard();
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			char disk = position.charAt(square);
+			board[Bitboard.row(square)][Bitboard.col(square)] = disk == 'X' ? ReversiGame.PLAYER_ONE
+					: disk == 'O' ? ReversiGame.PLAYER_TWO : 0;
+		}
+
+		MoveScore move = new MctsBot(game, 300, 2, 1 << 16).getNextMove();
+		assertEquals(0, move.getRow(), "Expected the winning move (0, 0)");
+		assertEquals(0, move.getColumn(), "Expected the winning move (0, 0)");
+		assertTrue(move.getScore() > 50, "Expected a winning percentage, got " + move.getScore());
+	}
+
+	@Test
+	void testSmallPoolAndNoMoves() {
+		ReversiGame game = new ReversiGame();
+		MctsBot bot = new MctsBot(game, 50, 2, 16);
+		assertNotNull(bot.getNextMove(), "Expected a move when the pool fills up");
+		assertTrue(bot.getTreeSize() <= 16);
+
+		for (int[] row : game.getBoard()) {
+			Arrays.fill(row, 0);
+		}
+		assertNull(bot.getNextMove(), "Expected no move on an empty board");
+	}
+}
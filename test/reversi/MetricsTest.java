@@ -0,0 +1,100 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class MetricsTest {
+
+	@Test
+	void testCountersAndLatencies() throws Exception {
+		Metrics.reset();
+		Metrics.increment(Metrics.Counter.NODES);
+		Metrics.add(Metrics.Counter.NODES, 41);
+		Metrics.increment(Metrics.Counter.TT_HITS);
+
+		// Each thread records into its own histogram, merged when read
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int value = 1; value <= 1000; value++) {
+					Metrics.recordMove("TestBot", value * 1000L);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Metrics.recordMove("Other\"Bot", 5);
+
+		assertEquals(42, Metrics.get(Metrics.Counter.NODES));
+		assertEquals(1, Metrics.get(Metrics.Counter.TT_HITS));
+		assertEquals(0, Metrics.get(Metrics.Counter.TT_PROBES));
+		LatencyHistogram latencies = Metrics.getMoveLatencies().get("TestBot");
+		assertEquals(4000, latencies.getTotalCount());
+		assertEquals(1_000_000, latencies.getMax());
+		long median = latencies.getValueAtPercentile(50);
+		assertTrue(median >= 500_000 && median <= 520_000, "Median " + median);
+
+		String json = Metrics.toJson();
+		assertTrue(json.contains("\"nodes\": 42"), json);
+		assertTrue(json.contains("\"TestBot\": {\"count\": 4000"), json);
+		assertTrue(json.contains("\"Other\\\"Bot\""), json);
+		String csv = Metrics.toCsv();
+		assertTrue(csv.matches("(?s)\\d+,move_generations,0\n.*"), csv);
+		assertTrue(csv.contains(",move_latency_nanos.TestBot.max,1000000\n"), csv);
+
+		Metrics.reset();
+		assertEquals(0, Metrics.get(Metrics.Counter.NODES));
+		assertTrue(Metrics.getMoveLatencies().isEmpty());
+	}
+
+	@Test
+	void testResetFromAnotherThread() throws Exception {
+		ExecutorService recorder = Executors.newSingleThreadExecutor();
+		try {
+			Metrics.reset();
+			recorder.submit(() -> Metrics.recordMove("ResetBot", 10)).get();
+			Metrics.reset();
+			assertTrue(Metrics.getMoveLatencies().isEmpty());
+			// The recording thread keeps its thread-local histograms through the reset, but registers new ones
+			recorder.submit(() -> Metrics.recordMove("ResetBot", 20)).get();
+			LatencyHistogram latencies = Metrics.getMoveLatencies().get("ResetBot");
+			assertNotNull(latencies, "Expected the moves after the reset to be recorded");
+			assertEquals(1, latencies.getTotalCount());
+			assertEquals(20, latencies.getMax());
+		} finally {
+			recorder.shutdown();
+			Metrics.reset();
+		}
+	}
+
+	@Test
+	void testDump() throws Exception {
+		Metrics.reset();
+		Metrics.add(Metrics.Counter.PLAYOUTS, 7);
+		Path dir = Files.createTempDirectory("metrics");
+		Path json = dir.resolve("metrics.json");
+		Path csv = dir.resolve("metrics.csv");
+		try {
+			Metrics.dump(json);
+			Metrics.dump(json);
+			Metrics.dump(csv);
+			Metrics.dump(csv);
+			assertTrue(Files.readString(json).contains("\"playouts\": 7"));
+			List<String> lines = Files.readAllLines(csv);
+			assertEquals(2 * Metrics.Counter.values().length, lines.size(), "Expected a line per counter per dump");
+		} finally {
+			Files.deleteIfExists(json);
+			Files.deleteIfExists(csv);
+			Files.delete(dir);
+			Metrics.reset();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class OpeningBookTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testSymmetriesMoveSquares() {
+		int square = Bitboard.square(1, 2);
+		assertEquals(Bitboard.square(2, 1), BoardSymmetry.applyToSquare(1, square), "Expected transpose");
+		assertEquals(Bitboard.square(1, 5), BoardSymmetry.applyToSquare(2, square), "Expected mirrored columns");
+		assertEquals(Bitboard.square(6, 2), BoardSymmetry.applyToSquare(4, square), "Expected flipped rows");
+		for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+			for (int s = 0; s < Bitboard.SQUARES; s++) {
+				assertEquals(s, BoardSymmetry.invertSquare(symmetry, BoardSymmetry.applyToSquare(symmetry, s)),
+						"Expected symmetry " + symmetry + " to be undone for square " + s);
+			}
+		}
+	}
+
+	@Test
+	void testCanonicalHashIsSymmetric() {
+		Random random = new Random(1);
+		for (int i = 0; i < 100; i++) {
+			long own = random.nextLong();
+			long opp = random.nextLong() & ~own;
+			long hash = BoardSymmetry.canonicalHash(own, opp);
+			for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+				assertEquals(hash, BoardSymmetry.canonicalHash(BoardSymmetry.apply(symmetry, own), BoardSymmetry.apply(symmetry, opp)),
+						"Expected the same canonical hash under symmetry " + symmetry);
+			}
+		}
+	}
+
+	@Test
+	void testBuildAndLookUp() throws Exception {
+		// Two random games, each added along with its mirror image along the other diagonal
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		Random random = new Random(2);
+		int[][] games = new int[2][];
+		for (int g = 0; g < games.length; g++) {
+			games[g] = randomGame(random);
+			assertTrue(builder.addGame(games[g], games[g].length), "Expected the game to be added");
+			int[] mirrored = new int[games[g].length];
+			for (int i = 0; i < mirrored.length; i++) {
+				mirrored[i] = BoardSymmetry.applyToSquare(7, games[g][i]);
+			}
+			assertTrue(builder.addGame(mirrored, mirrored.length), "Expected the mirrored game to be added");
+		}
+		assertFalse(builder.addGame(new int[] {0}, 1), "Expected an illegal game to be skipped");
+
+		Path file = this.tempDir.resolve("book.bin");
+		builder.write(file);
+		try (OpeningBook book = OpeningBook.open(file)) {
+			assertTrue(book.size() > 0, "Expected records in the book");
+			// A few moves in, the position isn't symmetric anymore and only the first game's move is known
+			ReversiGame game = new ReversiGame();
+			for (int i = 0; i < 4; i++) {
+				game.makeMove(games[0][i]);
+			}
+			MoveScore move = book.getBestMove(game, 2);
+			assertNotNull(move, "Expected the position to be in the book");
+			assertEquals(games[0][4], Bitboard.square(move.getRow(), move.getColumn()), "Expected the move played in the games");
+
+			long own = game.getDisks(game.getCurPlayer());
+			long opp = game.getDisks(ReversiGame.opponentPlayer(game.getCurPlayer()));
+			assertEquals(-1, book.getBestMove(own, opp, 3), "Expected no move played in enough games");
+		}
+	}
+
+	@Test
+	void testSkipsIllegalBookMoves() throws Exception {
+		// A colliding record for the initial position, with an illegal move that scored better than the legal one
+		ReversiGame game = new ReversiGame();
+		long own = game.getDisks(ReversiGame.PLAYER_ONE);
+		long opp = game.getDisks(ReversiGame.PLAYER_TWO);
+		int symmetry = BoardSymmetry.canonicalSymmetry(own, opp);
+		long position = BoardSymmetry.canonicalHash(own, opp) & ~OpeningBook.MOVE_MASK;
+		int legal = Bitboard.square(2, 4);
+		long[][] records = {
+				{position | BoardSymmetry.applyToSquare(symmetry, Bitboard.square(0, 0)), 10, 20},
+				{position | BoardSymmetry.applyToSquare(symmetry, legal), 10, 10},
+		};
+		Arrays.sort(records, (first, second) -> Long.compare(first[0], second[0]));
+		ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + records.length * OpeningBook.RECORD_BYTES);
+		buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(records.length);
+		for (long[] record : records) {
+			buffer.putLong(record[0]).putInt((int) record[1]).putInt((int) record[2]);
+		}
+		Path file = this.tempDir.resolve("collision.bin");
+		Files.write(file, buffer.array());
+
+		try (OpeningBook book = OpeningBook.open(file)) {
+			assertEquals(new MoveScore(2, 4, 50), book.getBestMove(game, 2), "Expected the legal book move");
+			assertEquals(legal, book.getBestMove(own, opp, 2), "Expected the legal book move");
+		}
+	}
+
+	private static int[] randomGame(Random random) {
+		ReversiGame game = new ReversiGame();
+		int[] squares = new int[Bitboard.SQUARES];
+		int count = 0;
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		while (!game.isGameOver()) {
+			int moveCount = game.getPossibleMoves(game.getCurPlayer(), moves);
+			squares[count] = PackedMove.square(moves[random.nextInt(moveCount)]);
+			game.makeMove(squares[count++]);
+		}
+		return Arrays.copyOf(squares, count);
+	}
+}
@@ -0,0 +1,98 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class PatternEvaluatorTest {
+
+	@Test
+	void testIncrementalIndicesMatchRecomputed() {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		PatternEvaluator evaluator = new PatternEvaluator(EvaluationWeights.heuristic());
+		evaluator.setPosition(game.getDisks(ReversiGame.PLAYER_ONE), game.getDisks(ReversiGame.PLAYER_TWO));
+		int[] expected = new int[Patterns.INSTANCES];
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		int[] players = new int[Bitboard.SQUARES];
+		int[] squares = new int[Bitboard.SQUARES];
+		Random random = new Random(42);
+
+		int ply = 0;
+		while (!game.isGameOver()) {
+			int player = game.getCurPlayer();
+			int count = game.getPossibleMoves(player, moves);
+			int square = PackedMove.square(moves[random.nextInt(count)]);
+			game.makeMove(square);
+			evaluator.play(player, square, game.getLastMoveFlips());
+			players[ply] = player;
+			squares[ply++] = square;
+			Patterns.computeIndices(game.getDisks(ReversiGame.PLAYER_ONE), game.getDisks(ReversiGame.PLAYER_TWO), expected);
+			assertArrayEquals(expected, evaluator.getIndices(), "Indices differ after move " + ply);
+		}
+		while (ply > 0) {
+			ply--;
+			evaluator.undo(players[ply], squares[ply], game.getLastMoveFlips());
+			game.undoMove();
+			Patterns.computeIndices(game.getDisks(ReversiGame.PLAYER_ONE), game.getDisks(ReversiGame.PLAYER_TWO), expected);
+			assertArrayEquals(expected, evaluator.getIndices(), "Indices differ after undoing to move " + ply);
+		}
+	}
+
+	@Test
+	void testEvaluationIsSymmetric() {
+		PatternEvaluator evaluator = new PatternEvaluator(EvaluationWeights.heuristic());
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		game.makeMove(Bitboard.square(2, 3));
+		long p1 = game.getDisks(ReversiGame.PLAYER_ONE);
+		long p2 = game.getDisks(ReversiGame.PLAYER_TWO);
+		evaluator.setPosition(p1, p2);
+		int score = evaluator.evaluate(ReversiGame.PLAYER_TWO, p1, p2);
+		for (int symmetry = 1; symmetry < BoardSymmetry.COUNT; symmetry++) {
+			long q1 = BoardSymmetry.apply(symmetry, p1);
+			long q2 = BoardSymmetry.apply(symmetry, p2);
+			evaluator.setPosition(q1, q2);
+			assertEquals(score, evaluator.evaluate(ReversiGame.PLAYER_TWO, q1, q2), "Symmetry " + symmetry);
+		}
+		// Swapping the colours and the player to move gives the same score
+		evaluator.setPosition(p2, p1);
+		assertEquals(score, evaluator.evaluate(ReversiGame.PLAYER_ONE, p2, p1));
+	}
+
+	@Test
+	void testHeuristicPrefersCorners() {
+		PatternEvaluator evaluator = new PatternEvaluator(EvaluationWeights.heuristic());
+		long corner = 1L;
+		long xSquare = Bitboard.bit(1, 1);
+		long center = Bitboard.bit(3, 3) | Bitboard.bit(4, 4);
+		long opp = Bitboard.bit(3, 4) | Bitboard.bit(4, 3);
+		evaluator.setPosition(center | corner, opp);
+		int withCorner = evaluator.evaluate(ReversiGame.PLAYER_ONE, center | corner, opp);
+		evaluator.setPosition(center | xSquare, opp);
+		int withXSquare = evaluator.evaluate(ReversiGame.PLAYER_ONE, center | xSquare, opp);
+		assertTrue(withCorner > withXSquare, withCorner + " should be more than " + withXSquare);
+	}
+
+	@Test
+	void testWeightsSaveAndLoad() throws Exception {
+		EvaluationWeights weights = EvaluationWeights.heuristic();
+		weights.patterns[2][1234] = -77;
+		weights.parity[3] = 9;
+		Path file = Files.createTempFile("weights", ".bin");
+		try {
+			weights.save(file);
+			EvaluationWeights loaded = EvaluationWeights.load(file);
+			for (int stage = 0; stage < EvaluationWeights.STAGES; stage++) {
+				assertArrayEquals(weights.patterns[stage], loaded.patterns[stage]);
+			}
+			assertArrayEquals(weights.mobility, loaded.mobility);
+			assertArrayEquals(weights.parity, loaded.parity);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTest {
+
+	@Test
+	void testReferenceCounts() {
+		ReversiGame game = new ReversiGame();
+		for (int depth = 0; depth <= 8; depth++) {
+			assertEquals(Perft.REFERENCE_COUNTS[depth], Perft.count(game, depth), "depth " + depth);
+		}
+		assertEquals(0, game.getUndoDepth());
+		assertEquals(new ReversiGame().getHash(), game.getHash());
+	}
+
+	@Test
+	void testForkJoinMatchesReference() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			assertEquals(Perft.REFERENCE_COUNTS[8], Perft.count(new ReversiGame(), 8, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testPossibleMovesAndPlaceDiskMatchReference() {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		for (int depth = 0; depth <= 7; depth++) {
+			assertEquals(Perft.REFERENCE_COUNTS[depth], countWithMoveScores(game, depth), "depth " + depth);
+		}
+	}
+
+	@Test
+	void testEndgamePositionsWithPasses() {
+		Random random = new Random(20);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (int g = 0; g < 10; g++) {
+				ReversiGame game = new ReversiGame();
+				game.setListener(GameListener.NONE);
+				while (game.getEmptyCount() > 10 && !game.isGameOver()) {
+					MoveScore[] moves = game.getPossibleMoves();
+					MoveScore move = moves[random.nextInt(moves.length)];
+					game.placeDisk(move.getRow(), move.getColumn());
+				}
+				for (int depth = 2; depth <= 12; depth += 5) {
+					long expected = countWithMoveScores(game, depth);
+					assertEquals(expected, Perft.count(game, depth), "game " + g + ", depth " + depth);
+					assertEquals(expected, Perft.count(game, depth, pool), "game " + g + ", depth " + depth);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Perft through the MoveScore API, playing every move on a copy of the game.
+	 */
+	private static long countWithMoveScores(ReversiGame game, int depth) {
+		if (depth == 0 || game.isGameOver()) {
+			return 1;
+		}
+		long nodes = 0;
+		int player = game.getCurPlayer();
+		for (MoveScore move : game.getPossibleMoves()) {
+			ReversiGame child = new ReversiGame(game);
+			assertTrue(child.placeDisk(move.getRow(), move.getColumn()));
+			if (child.getCurPlayer() == player && !child.isGameOver()) {
+				// The opponent passes, which takes a ply
+				nodes += depth == 1 ? 1 : countWithMoveScores(child, depth - 2);
+			} else {
+				nodes += countWithMoveScores(child, depth - 1);
+			}
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,150 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PositionTest {
+
+	@Test
+	void testInitialPosition() {
+		ReversiGame game = new ReversiGame();
+		assertEquals(Position.INITIAL, game.getPosition());
+		assertEquals(60, Position.INITIAL.getEmptyCount());
+		assertArrayEquals(game.getBoard(), Position.INITIAL.toBoard());
+		assertEquals(Position.INITIAL, new Position(game.getBoard(), ReversiGame.PLAYER_ONE));
+	}
+
+	@Test
+	void testSnapshotDoesNotChange() {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		game.makeMove(2, 4);
+		Position position = game.getPosition();
+		assertEquals(ReversiGame.PLAYER_TWO, position.getPlayer());
+		assertEquals(ReversiGame.PLAYER_ONE, position.get(2, 4));
+
+		game.makeMove(2, 3);
+		assertNotEquals(position, game.getPosition());
+		assertEquals(ReversiGame.PLAYER_ONE, position.get(3, 3));
+		// Changes written into the board array are part of the next snapshot
+		game.getBoard()[0][0] = ReversiGame.PLAYER_TWO;
+		assertEquals(ReversiGame.PLAYER_TWO, game.getPosition().get(0, 0));
+		assertEquals(0, position.get(0, 0));
+	}
+
+	@Test
+	void testLoadPosition() {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		game.makeMove(2, 4);
+		game.makeMove(2, 3);
+		Position position = game.getPosition();
+		long hash = game.getHash();
+
+		ReversiGame other = new ReversiGame();
+		other.setPosition(position);
+		assertEquals(position, other.getPosition());
+		assertEquals(hash, other.getHash());
+		assertEquals(game.getCurPlayer(), other.getCurPlayer());
+		assertArrayEquals(game.getBoard(), other.getBoard());
+		assertEquals(0, other.getUndoDepth());
+		assertEquals(game.getPossibleMoves().length, other.getPossibleMoves().length);
+	}
+
+	@Test
+	void testLoadPositionPasses() {
+		// Player one has no move, player two can take the last empty square
+		Position position = Position.parse("XXXXXOX-" + "X".repeat(56) + " X");
+		ReversiGame game = new ReversiGame();
+		game.setPosition(position);
+		assertEquals(position, game.getPosition());
+		game.setPositionAndPass(position);
+		assertEquals(ReversiGame.PLAYER_TWO, game.getCurPlayer());
+		assertEquals(new Position(position.getPlayerOneDisks(), position.getPlayerTwoDisks(), ReversiGame.PLAYER_TWO),
+				game.getPosition());
+		assertFalse(game.isGameOver());
+		assertTrue(game.makeMove(0, 7));
+		assertTrue(game.isGameOver());
+	}
+
+	@Test
+	void testEqualsAndHashCode() {
+		Position position = new Position(Position.INITIAL.getPlayerOneDisks(), Position.INITIAL.getPlayerTwoDisks(),
+				ReversiGame.PLAYER_ONE);
+		assertEquals(Position.INITIAL, position);
+		assertEquals(Position.INITIAL.hashCode(), position.hashCode());
+		assertNotEquals(Position.INITIAL, new Position(position.getPlayerOneDisks(), position.getPlayerTwoDisks(),
+				ReversiGame.PLAYER_TWO));
+		assertNotEquals(Position.INITIAL, new Position(position.getPlayerTwoDisks(), position.getPlayerOneDisks(),
+				ReversiGame.PLAYER_ONE));
+
+		// Positions in a game are all different, and so should their hash codes mostly be
+		Set<Position> positions = new HashSet<>();
+		Set<Integer> hashCodes = new HashSet<>();
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		while (!game.isGameOver()) {
+			positions.add(game.getPosition());
+			hashCodes.add(game.getPosition().hashCode());
+			MoveScore move = game.getPossibleMoves()[0];
+			game.makeMove(move.getRow(), move.getColumn());
+		}
+		assertEquals(game.getUndoDepth(), positions.size());
+		assertEquals(positions.size(), hashCodes.size());
+	}
+
+	@Test
+	void testParse() {
+		String initial = "---------------------------XO------OX--------------------------- O";
+		Position position = Position.parse(initial);
+		assertEquals(Position.INITIAL.getPlayerOneDisks(), position.getPlayerOneDisks());
+		assertEquals(Position.INITIAL.getPlayerTwoDisks(), position.getPlayerTwoDisks());
+		assertEquals(ReversiGame.PLAYER_TWO, position.getPlayer());
+		assertEquals(initial, position.toString());
+		assertEquals(Position.INITIAL, Position.parse(Position.INITIAL.toString()));
+
+		assertThrows(IllegalArgumentException.class, () -> Position.parse("XO"));
+		assertThrows(IllegalArgumentException.class, () -> Position.parse(initial.replace(" O", " ?")));
+		assertThrows(IllegalArgumentException.class, () -> Position.parse(initial.replace('-', '.')));
+		assertThrows(IllegalArgumentException.class, () -> new Position(1, 1, ReversiGame.PLAYER_ONE));
+		assertThrows(IllegalArgumentException.class, () -> new Position(1, 2, 0));
+	}
+
+	@Test
+	void testSharedBetweenThreads() throws Exception {
+		ReversiGame game = new ReversiGame();
+		game.setListener(GameListener.NONE);
+		game.makeMove(2, 4);
+		Position position = game.getPosition();
+		int moves = game.getPossibleMoves().length;
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			// Every thread loads the same instance into its own game and plays on from it
+			Future<?>[] futures = new Future<?>[8];
+			for (int i = 0; i < futures.length; i++) {
+				int move = i % moves;
+				futures[i] = pool.submit(() -> {
+					ReversiGame own = new ReversiGame();
+					own.setListener(GameListener.NONE);
+					own.setPosition(position);
+					MoveScore[] possible = own.getPossibleMoves();
+					assertEquals(moves, possible.length);
+					assertTrue(own.makeMove(possible[move].getRow(), possible[move].getColumn()));
+					return null;
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(game.getPosition(), position);
+	}
+}
@@ -254,6 +254,135 @@ public class ReversiGameTest {
 		assertEquals(0, movesForEmptyBoard.length, "Expected 0 possible moves for an empty board.");
 	}
 
+	@Test
+	void testGetPossibleMovesIntoBuffer() {
+		game.placeDisk(2, 4); // PLAYER_ONE moves
+		int[] buffer = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		int count = game.getPossibleMoves(ReversiGame.PLAYER_TWO, buffer);
+
+		MoveScore[] moves = new MoveScore[count];
+		long moveMask = 0;
+		for (int i = 0; i < count; i++) {
+			moves[i] = PackedMove.toMoveScore(buffer[i]);
+			moveMask |= 1L << PackedMove.square(buffer[i]);
+		}
+		assertSameMoves(game.getPossibleMoves(ReversiGame.PLAYER_TWO), moves, ReversiGame.PLAYER_TWO);
+		assertEquals(moveMask, game.getMoveMask(ReversiGame.PLAYER_TWO), "Expected the move mask to match the moves");
+	}
+
+	@Test
+	void testMakeAndUndoMove() {
+		// Squares off the board must not wrap around to (2, 4)
+		assertFalse(game.makeMove(Bitboard.square(2, 4) + Bitboard.SQUARES), "Expected invalid square 84");
+		assertFalse(game.makeMove(Bitboard.square(2, 4) - Bitboard.SQUARES), "Expected invalid square -44");
+		assertEquals(0, game.getUndoDepth());
+		int[][] moves = {{2, 4}, {4, 5}, {5, 5}, {2, 3}, {2, 2}, {1, 3}};
+		for (int[] move : moves) {
+			assertTrue(game.makeMove(move[0], move[1]), "Expected valid move at (" + move[0] + ", " + move[1] + ")");
+		}
+		assertFalse(game.makeMove(0, 0), "Expected invalid move at (0, 0)");
+		assertEquals(moves.length, game.getUndoDepth());
+
+		for (int i = 0; i < moves.length; i++) {
+			assertTrue(game.undoMove(), "Expected move " + i + " to be taken back");
+		}
+		assertFalse(game.undoMove(), "Expected no more moves to take back");
+		assertTrue(Arrays.deepEquals(INITIAL_BOARD, this.game.getBoard()),
+				"Expected board: \n" + printBoard(INITIAL_BOARD) + "\nBut got:\n" + printBoard(this.game.getBoard()));
+		assertEquals(ReversiGame.PLAYER_ONE, game.getCurPlayer(), "Expected the player to be Player One");
+		assertSameMoves(new ReversiGame().getPossibleMoves(), game.getPossibleMoves(), ReversiGame.PLAYER_ONE);
+	}
+
+	@Test
+	void testHashIsUpdatedWithMoves() {
+		long initialHash = game.getHash();
+		int[][] moves = {{2, 4}, {4, 5}, {5, 5}, {2, 3}, {2, 2}, {1, 3}};
+		for (int[] move : moves) {
+			game.makeMove(move[0], move[1]);
+			assertEquals(Zobrist.hash(game.getDisks(ReversiGame.PLAYER_ONE), game.getDisks(ReversiGame.PLAYER_TWO), game.getCurPlayer()),
+					game.getHash(), "Expected the hash to match the position after (" + move[0] + ", " + move[1] + ")");
+		}
+		while (game.undoMove()) {
+			assertEquals(Zobrist.hash(game.getDisks(ReversiGame.PLAYER_ONE), game.getDisks(ReversiGame.PLAYER_TWO), game.getCurPlayer()),
+					game.getHash(), "Expected the hash to match the position after undo");
+		}
+		assertEquals(initialHash, game.getHash(), "Expected the initial hash after taking back all moves");
+	}
+
+	@Test
+	void testListenerEvents() {
+		StringBuilder events = new StringBuilder();
+		game.setListener(new GameListener() {
+			@Override
+			public void movePlayed(int player, int row, int col, int flips) {
+				events.append("move ").append(player).append(' ').append(row).append(' ').append(col).append(' ').append(flips).append(';');
+			}
+
+			@Override
+			public void passed(int player) {
+				events.append("pass ").append(player).append(';');
+			}
+
+			@Override
+			public void gameOver(int winner) {
+				events.append("over ").append(winner).append(';');
+			}
+		});
+		game.placeDisk(2, 4);
+		assertEquals("move 1 2 4 1;", events.toString());
+		events.setLength(0);
+		assertTrue(game.makeMove(2, 5));
+		assertEquals("", events.toString(), "Expected makeMove to play without events");
+		assertTrue(game.undoMove());
+
+		// Player one wipes out player two
+		for (int[] row : game.getBoard()) {
+			Arrays.fill(row, 0);
+		}
+		game.getBoard()[0][1] = ReversiGame.PLAYER_ONE;
+		game.getBoard()[0][2] = ReversiGame.PLAYER_TWO;
+		events.setLength(0);
+		game.placeDisk(0, 0);
+		assertEquals("move 2 0 0 1;over 2;", events.toString());
+	}
+
+	@Test
+	void testCachedCountsAndMobility() {
+		game.setListener(GameListener.NONE);
+		java.util.Random random = new java.util.Random(7);
+		int[] moves = new int[ReversiGame.MOVE_BUFFER_SIZE];
+		while (!game.isGameOver()) {
+			assertCacheMatchesDisks(game);
+			int count = game.getPossibleMoves(game.getCurPlayer(), moves);
+			game.makeMove(PackedMove.square(moves[random.nextInt(count)]));
+		}
+		assertCacheMatchesDisks(game);
+		while (game.getUndoDepth() > 20) {
+			game.undoMove();
+			assertCacheMatchesDisks(game);
+		}
+
+		// Changes through the board array reset the cache
+		game.getBoard()[0][0] = ReversiGame.PLAYER_TWO;
+		assertCacheMatchesDisks(game);
+		for (int[] row : game.getBoard()) {
+			Arrays.fill(row, ReversiGame.PLAYER_ONE);
+		}
+		assertCacheMatchesDisks(game);
+		assertTrue(game.isGameOver());
+		assertEquals(ReversiGame.PLAYER_ONE, game.getWinner());
+	}
+
+	private static void assertCacheMatchesDisks(ReversiGame game) {
+		long playerOne = game.getDisks(ReversiGame.PLAYER_ONE);
+		long playerTwo = game.getDisks(ReversiGame.PLAYER_TWO);
+		assertEquals(Long.bitCount(playerOne), game.getDiskCount(ReversiGame.PLAYER_ONE));
+		assertEquals(Long.bitCount(playerTwo), game.getDiskCount(ReversiGame.PLAYER_TWO));
+		assertEquals(Long.bitCount(~(playerOne | playerTwo)), game.getEmptyCount());
+		assertEquals(Bitboard.moves(playerOne, playerTwo), game.getMoveMask(ReversiGame.PLAYER_ONE));
+		assertEquals(Bitboard.moves(playerTwo, playerOne), game.getMoveMask(ReversiGame.PLAYER_TWO));
+		assertEquals(Long.bitCount(Bitboard.moves(playerTwo, playerOne)), game.getMobility(ReversiGame.PLAYER_TWO));
+	}
 
 	// ##### HELPER METHODS ######
 	public static void assertSameMoves(MoveScore[] expectedMoves, MoveScore[] moves, int player) {
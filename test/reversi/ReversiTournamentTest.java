@@ -0,0 +1,110 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReversiTournamentTest {
+	private static final long MOVE_LIMIT_MILLIS = 50;
+
+	/**
+	 * Always plays the first of its possible moves.
+	 */
+	public static class FirstMoveBot implements ReversiBot {
+		private final ReversiGame game;
+
+		public FirstMoveBot(ReversiGame game) {
+			this.game = game;
+		}
+
+		@Override
+		public MoveScore getNextMove() {
+			return this.game.getPossibleMoves()[0];
+		}
+	}
+
+	/**
+	 * Never answers until it's interrupted.
+	 */
+	public static class StuckBot implements ReversiBot {
+		public StuckBot(ReversiGame game) {
+		}
+
+		@Override
+		public MoveScore getNextMove() {
+			try {
+				Thread.sleep(Long.MAX_VALUE);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}
+	}
+
+	@Test
+	void testFindBots() {
+		List<String> names = new ArrayList<>();
+		for (Constructor<? extends ReversiBot> constructor : ReversiTournament.findBots()) {
+			names.add(constructor.getDeclaringClass().getName());
+		}
+		assertTrue(names.contains(AlphaBetaBot.class.getName()), "Expected AlphaBetaBot in " + names);
+		assertTrue(names.contains(MctsBot.class.getName()), "Expected MctsBot in " + names);
+		assertFalse(names.contains(ReversiBot.class.getName()), "Expected no interface in " + names);
+		List<String> sorted = new ArrayList<>(names);
+		sorted.sort(null);
+		assertEquals(sorted, names, "Expected the bots ordered by class name");
+	}
+
+	@Test
+	void testPlayGame() throws Exception {
+		ReversiTournament.Entry first = entry(FirstMoveBot.class);
+		ReversiTournament.GameResult result = ReversiTournament.playGame(first, first, 1000, 10_000);
+		assertEquals(0, result.forfeited);
+		assertFalse(result.timedOut);
+
+		ReversiGame expected = new ReversiGame();
+		expected.setListener(GameListener.NONE);
+		while (!expected.isGameOver()) {
+			MoveScore move = expected.getPossibleMoves()[0];
+			expected.makeMove(move.getRow(), move.getColumn());
+		}
+		assertEquals(expected.getWinner(), result.winner);
+		assertEquals(expected.getUndoDepth(), result.record.getMoveCount());
+		assertEquals(result.record.getMoveCount(), result.latencies[ReversiGame.PLAYER_ONE].getTotalCount()
+				+ result.latencies[ReversiGame.PLAYER_TWO].getTotalCount());
+	}
+
+	@Test
+	void testTimeoutForfeitsAndStandings() throws Exception {
+		ReversiTournament.Entry first = entry(FirstMoveBot.class);
+		ReversiTournament.Entry stuck = entry(StuckBot.class);
+		List<ReversiTournament.Entry> entries = List.of(stuck, first);
+		List<ReversiTournament.GameResult> results = ReversiTournament.playRoundRobin(entries, 1, 2,
+				MOVE_LIMIT_MILLIS, 10_000, null);
+		assertEquals(2, results.size());
+		for (ReversiTournament.GameResult result : results) {
+			int stuckPlayer = result.playerOne == stuck ? ReversiGame.PLAYER_ONE : ReversiGame.PLAYER_TWO;
+			assertEquals(stuckPlayer, result.forfeited);
+			assertTrue(result.timedOut);
+			assertEquals(ReversiGame.opponentPlayer(stuckPlayer), result.winner);
+			assertEquals(result.forfeited, result.record.getForfeited());
+			ReversiTournament.record(result);
+		}
+
+		assertEquals(2, first.wins);
+		assertEquals(0, first.losses + first.forfeits + first.timeouts);
+		assertEquals(2, stuck.losses);
+		assertEquals(2, stuck.forfeits);
+		assertEquals(2, stuck.timeouts);
+		assertEquals(List.of(first, stuck), ReversiTournament.standings(entries));
+		assertEquals(2.0, first.points());
+		assertEquals(0.0, stuck.points());
+	}
+
+	private static ReversiTournament.Entry entry(Class<? extends ReversiBot> bot) throws NoSuchMethodException {
+		return new ReversiTournament.Entry(bot.getConstructor(ReversiGame.class));
+	}
+}
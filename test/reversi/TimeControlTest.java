@@ -0,0 +1,54 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeoutException;
+
+public class TimeControlTest {
+
+	@Test
+	void testReturnsMoveAndRecordsLatency() throws Exception {
+		ReversiGame game = new ReversiGame();
+		try (TimeControl bot = new TimeControl(new RenameThisClassMyReversiBot(game), 1000, 10_000)) {
+			assertNotNull(bot.getNextMove(), "Expected a move from the initial board");
+			assertEquals(1, bot.getLatencies().getTotalCount(), "Expected one recorded move");
+		}
+	}
+
+	@Test
+	void testLoopingBotTimesOut() {
+		ReversiBot loopingBot = () -> {
+			while (true) {
+				Thread.onSpinWait();
+			}
+		};
+		try (TimeControl bot = new TimeControl(loopingBot, 50, 10_000)) {
+			long start = System.nanoTime();
+			assertThrows(TimeoutException.class, bot::getNextMove, "Expected the looping bot to time out");
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			assertTrue(elapsedMillis < 1000, "Expected control back soon after the move limit, took " + elapsedMillis + "ms");
+		}
+	}
+
+	@Test
+	void testGameClock() throws Exception {
+		ReversiBot slowBot = () -> {
+			try {
+				Thread.sleep(30);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		};
+		try (TimeControl bot = new TimeControl(slowBot, 1000, 100)) {
+			bot.getNextMove();
+			bot.getNextMove();
+			assertThrows(TimeoutException.class, () -> {
+				for (int i = 0; i < 10; i++) {
+					bot.getNextMove();
+				}
+			}, "Expected the game clock to run out");
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+
+	@Test
+	void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		long hash = new ReversiGame().getHash();
+		assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash), "Expected an empty table");
+
+		table.store(hash, 5, -123, TranspositionTable.LOWER_BOUND, 19, table.newSearch());
+		long entry = table.probe(hash);
+		assertEquals(-123, TranspositionTable.score(entry));
+		assertEquals(5, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+		assertEquals(19, TranspositionTable.move(entry));
+		assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash ^ 1L << 40), "Expected a miss for another position in the same slot");
+	}
+
+	@Test
+	void testDepthPreferredReplacement() {
+		TranspositionTable table = new TranspositionTable(1);
+		long hash = 0x1234_5678_9ABC_DEF0L;
+		long otherHash = hash + ((long) table.capacity() << 3); // same slot
+
+		int generation = table.newSearch();
+		table.store(hash, 8, 10, TranspositionTable.EXACT, 1, generation);
+		table.store(otherHash, 3, 20, TranspositionTable.EXACT, 2, generation);
+		assertEquals(8, TranspositionTable.depth(table.probe(hash)), "Expected the deeper entry to be kept");
+
+		// A later search, or another one sharing the table, doesn't age the entries of a running search
+		int otherGeneration = table.newSearch();
+		assertNotEquals(generation, otherGeneration);
+		table.store(otherHash, 3, 20, TranspositionTable.EXACT, 2, generation);
+		assertEquals(8, TranspositionTable.depth(table.probe(hash)), "Expected the deeper entry to be kept");
+		table.store(otherHash, 3, 20, TranspositionTable.EXACT, 2, otherGeneration);
+		assertEquals(TranspositionTable.NO_ENTRY, table.probe(hash), "Expected the entry of the earlier search to be replaced");
+		assertEquals(20, TranspositionTable.score(table.probe(otherHash)));
+	}
+}
@@ -0,0 +1,70 @@
+package reversi;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class WeightTuningTest {
+
+	@Test
+	void testWriteAndReadTrainingData() throws Exception {
+		Path file = Files.createTempFile("training", ".bin");
+		Files.delete(file);
+		try {
+			try (TrainingDataWriter writer = new TrainingDataWriter(file, 64)) {
+				writer.writeGame(new long[] {1L, 2L}, new long[] {-1L << 63, 8L}, new int[] {1, 2}, 2, -12);
+			}
+			try (TrainingDataWriter writer = new TrainingDataWriter(file)) {
+				writer.writeGame(new long[] {0x0F0FL}, new long[] {0xF0F0L}, new int[] {2}, 1, 64);
+			}
+			try (TrainingData data = TrainingData.open(file)) {
+				assertEquals(3, data.size(), "Expected the second writer to append");
+				assertEquals(2L, data.getPlayerOneDisks(1));
+				assertEquals(8L, data.getPlayerTwoDisks(1));
+				assertEquals(-1L << 63, data.getPlayerTwoDisks(0));
+				assertEquals(ReversiGame.PLAYER_ONE, data.getPlayer(0));
+				assertEquals(ReversiGame.PLAYER_TWO, data.getPlayer(2));
+				assertEquals(-12, data.getDiskDifference(1));
+				assertEquals(64, data.getDiskDifference(2));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void testSelfPlayAndTraining() throws Exception {
+		Path file = Files.createTempFile("training", ".bin");
+		Files.delete(file);
+		try {
+			SelfPlay selfPlay = new SelfPlay(RenameThisClassMyReversiBot::new, 4);
+			long positions;
+			try (TrainingDataWriter writer = new TrainingDataWriter(file)) {
+				selfPlay.play(200, 2, 42, writer);
+				positions = writer.getPositions();
+			}
+			assertEquals(200, selfPlay.getGames());
+			assertTrue(positions > 200 * 40, "Expected most of each game's positions, got " + positions);
+
+			try (TrainingData data = TrainingData.open(file)) {
+				assertEquals(positions, data.size());
+				for (long i = 0; i < data.size(); i++) {
+					assertEquals(0, data.getPlayerOneDisks(i) & data.getPlayerTwoDisks(i), "Overlapping disks at " + i);
+				}
+				WeightTrainer trainer = new WeightTrainer(2, 256, WeightTrainer.DEFAULT_LEARNING_RATE);
+				double first = trainer.trainEpoch(data);
+				double last = first;
+				for (int epoch = 0; epoch < 4; epoch++) {
+					last = trainer.trainEpoch(data);
+				}
+				assertTrue(last < first, "Expected the error to go down from " + first + ", got " + last);
+				EvaluationWeights weights = trainer.toWeights();
+				assertEquals(Patterns.WEIGHTS_PER_STAGE, weights.patterns[0].length);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}